@@ -0,0 +1,153 @@
+package de.di;
+
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A ColumnarRelation is a column-major, dictionary-encoded representation of a relation. The columns are encoded once
+ * when the relation is loaded, so algorithms that work attribute-wise, such as PLI construction, IND checks or
+ * attribute matching, can operate on value ids and sorted dictionaries instead of transposing String records.
+ */
+@Getter
+public class ColumnarRelation {
+
+    // The name of the relation.
+    private final String name;
+
+    // The attribute labels of the relation.
+    private final String[] attributes;
+
+    // The dictionary-encoded columns of the relation, one per attribute.
+    private final EncodedColumn[] columns;
+
+    // The number of records in the relation.
+    private final int numRecords;
+
+    // The relation that results of algorithms on this columnar relation refer to.
+    private final Relation relation;
+
+    /**
+     * Encodes the columns of an already loaded relation. Results refer to the provided relation.
+     * @param relation The relation to encode.
+     */
+    public ColumnarRelation(Relation relation) {
+        this.name = relation.getName();
+        this.attributes = relation.getAttributes();
+        this.numRecords = relation.getRecords().length;
+        this.relation = relation;
+
+        // Encode row-wise, so that the relation does not need to cache a transposed copy of its records
+        EncodedColumn.Builder[] builders = new EncodedColumn.Builder[this.attributes.length];
+        for (int i = 0; i < builders.length; i++)
+            builders[i] = new EncodedColumn.Builder();
+        for (String[] record : relation.getRecords())
+            for (int i = 0; i < builders.length; i++)
+                builders[i].add(record[i]);
+
+        this.columns = new EncodedColumn[builders.length];
+        for (int i = 0; i < builders.length; i++)
+            this.columns[i] = builders[i].build();
+    }
+
+    /**
+     * Encodes the columns while streaming over the records of the reader, such that the String records are never
+     * materialized. Results refer to a schema-only relation of the reader.
+     * @param reader The reader to consume; it is closed afterwards.
+     * @param batchSize The maximum number of records that are held in memory at the same time.
+     */
+    public ColumnarRelation(RelationReader reader, int batchSize) {
+        this.name = reader.getName();
+        this.attributes = reader.getAttributes();
+        this.relation = reader.toSchemaRelation();
+
+        EncodedColumn.Builder[] builders = new EncodedColumn.Builder[this.attributes.length];
+        for (int i = 0; i < builders.length; i++)
+            builders[i] = new EncodedColumn.Builder();
+
+        int numRecords = 0;
+        try (reader) {
+            List<String[]> batch;
+            while (!(batch = reader.nextBatch(batchSize)).isEmpty()) {
+                for (String[] record : batch)
+                    for (int i = 0; i < builders.length; i++)
+                        builders[i].add(record[i]);
+                numRecords += batch.size();
+            }
+        }
+        this.numRecords = numRecords;
+
+        this.columns = new EncodedColumn[builders.length];
+        for (int i = 0; i < builders.length; i++)
+            this.columns[i] = builders[i].build();
+    }
+
+    /**
+     * Assembles a columnar relation from already encoded columns, e.g., from a snapshot. Results refer to a
+     * schema-only relation.
+     * @param name The name of the relation.
+     * @param attributes The attribute labels of the relation.
+     * @param columns The encoded columns, one per attribute.
+     * @param numRecords The number of records in the relation.
+     */
+    public ColumnarRelation(String name, String[] attributes, EncodedColumn[] columns, int numRecords) {
+        this.name = name;
+        this.attributes = attributes;
+        this.columns = columns;
+        this.numRecords = numRecords;
+        this.relation = new Relation(name, attributes, new String[0][]);
+    }
+
+    /**
+     * Decodes the columns back into a row-major relation with all records.
+     * @return The decoded relation.
+     */
+    public Relation toRelation() {
+        String[][] records = new String[this.numRecords][this.attributes.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            String[] dictionary = this.columns[i].getDictionary();
+            int[] valueIds = this.columns[i].getValueIds();
+            for (int j = 0; j < this.numRecords; j++)
+                records[j][i] = dictionary[valueIds[j]];
+        }
+        return new Relation(this.name, this.attributes, records);
+    }
+
+    /**
+     * Iterates over the records of this relation and decodes every record only when it is requested, such that a
+     * sample of the records can be drawn without decoding the entire relation.
+     * @return An iterator over the decoded records in record order.
+     */
+    public Iterator<String[]> records() {
+        return new Iterator<>() {
+            private int recordIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.recordIndex < ColumnarRelation.this.numRecords;
+            }
+
+            @Override
+            public String[] next() {
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+                String[] record = new String[ColumnarRelation.this.columns.length];
+                for (int i = 0; i < record.length; i++)
+                    record[i] = ColumnarRelation.this.columns[i].get(this.recordIndex);
+                this.recordIndex++;
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Returns the encoded column of the provided attribute.
+     * @param attribute The index of the attribute.
+     * @return The encoded column of the attribute.
+     */
+    public EncodedColumn getColumn(int attribute) {
+        return this.columns[attribute];
+    }
+}
@@ -0,0 +1,185 @@
+package de.di;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An EncodedColumn stores the values of one attribute as dictionary-encoded value ids. The dictionary holds every
+ * distinct value exactly once and is sorted, i.e., the value id of a value is its position in the dictionary and the
+ * order of the ids corresponds to the lexicographical order of the values. Two columns can, therefore, be compared by
+ * merging their dictionaries without any hashing. Subclasses may keep the dictionary and the value ids outside of the
+ * heap, e.g., in a memory-mapped snapshot, by overriding all accessors; the algorithms only use the accessors.
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedColumn {
+
+    // The sorted, distinct values of the column; a value id is an index into this array.
+    private final String[] dictionary;
+
+    // The value id of every record in the column.
+    private final int[] valueIds;
+
+    /**
+     * Creates a column for a subclass that stores its dictionary and value ids itself.
+     */
+    protected EncodedColumn() {
+        this(null, null);
+    }
+
+    /**
+     * Dictionary-encodes the provided column values.
+     * @param values The values of the column in record order.
+     * @return The encoded column.
+     */
+    public static EncodedColumn encode(String[] values) {
+        Builder builder = new Builder();
+        for (String value : values)
+            builder.add(value);
+        return builder.build();
+    }
+
+    /**
+     * Incrementally encodes a column from a stream of values, such that the values need not be materialized as a
+     * String array first.
+     */
+    public static class Builder {
+
+        private final Object2IntMap<String> valueToId = new Object2IntOpenHashMap<>();
+        private final IntArrayList valueIds = new IntArrayList();
+
+        public Builder() {
+            this.valueToId.defaultReturnValue(-1);
+        }
+
+        public void add(String value) {
+            int id = this.valueToId.getInt(value);
+            if (id < 0) {
+                id = this.valueToId.size();
+                this.valueToId.put(value, id);
+            }
+            this.valueIds.add(id);
+        }
+
+        public EncodedColumn build() {
+            String[] dictionary = new String[this.valueToId.size()];
+            for (Object2IntMap.Entry<String> entry : this.valueToId.object2IntEntrySet())
+                dictionary[entry.getIntValue()] = entry.getKey();
+
+            // Sort the dictionary and translate the preliminary insertion-order ids into sorted ids
+            int[] order = new int[dictionary.length];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            IntArrays.quickSort(order, (a, b) -> dictionary[a].compareTo(dictionary[b]));
+
+            String[] sortedDictionary = new String[dictionary.length];
+            int[] translation = new int[dictionary.length];
+            for (int sortedId = 0; sortedId < order.length; sortedId++) {
+                sortedDictionary[sortedId] = dictionary[order[sortedId]];
+                translation[order[sortedId]] = sortedId;
+            }
+
+            int[] ids = this.valueIds.toIntArray();
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = translation[ids[i]];
+            return new EncodedColumn(sortedDictionary, ids);
+        }
+    }
+
+    /**
+     * Returns the number of records in this column.
+     * @return The number of records in this column.
+     */
+    public int size() {
+        return this.valueIds.length;
+    }
+
+    /**
+     * Returns the number of distinct values in this column.
+     * @return The number of distinct values in this column.
+     */
+    public int cardinality() {
+        return this.dictionary.length;
+    }
+
+    /**
+     * Returns the value with the provided value id.
+     * @param valueId The value id, i.e., the position of the value in the dictionary.
+     * @return The value with the value id.
+     */
+    public String getValue(int valueId) {
+        return this.dictionary[valueId];
+    }
+
+    /**
+     * Returns the value id of the provided record.
+     * @param recordIndex The index of the record.
+     * @return The value id of the record in this column.
+     */
+    public int getValueId(int recordIndex) {
+        return this.valueIds[recordIndex];
+    }
+
+    /**
+     * Returns the decoded value of the provided record.
+     * @param recordIndex The index of the record.
+     * @return The value of the record in this column.
+     */
+    public String get(int recordIndex) {
+        return this.getValue(this.getValueId(recordIndex));
+    }
+
+    /**
+     * Decodes this column into its plain values.
+     * @return The values of this column in record order.
+     */
+    public String[] decode() {
+        String[] values = new String[this.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = this.get(i);
+        return values;
+    }
+
+    /**
+     * Checks whether every value of the other column is also a value of this column, i.e., whether the value set of
+     * the other column is included in the value set of this column.
+     * @param other The column whose values should be included in this column.
+     * @return true if all values of the other column occur in this column.
+     */
+    public boolean containsAll(EncodedColumn other) {
+        if (other.cardinality() > this.cardinality())
+            return false;
+        return this.intersectionSize(other) == other.cardinality();
+    }
+
+    /**
+     * Calculates the number of distinct values that this column and the other column have in common by merging the
+     * two sorted dictionaries.
+     * @param other The other column.
+     * @return The size of the intersection of the two value sets.
+     */
+    public int intersectionSize(EncodedColumn other) {
+        int cardinality1 = this.cardinality();
+        int cardinality2 = other.cardinality();
+        int i = 0;
+        int j = 0;
+        int intersection = 0;
+        while (i < cardinality1 && j < cardinality2) {
+            int comparison = this.getValue(i).compareTo(other.getValue(j));
+            if (comparison == 0) {
+                intersection++;
+                i++;
+                j++;
+            } else if (comparison < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return intersection;
+    }
+}
@@ -8,10 +8,13 @@ import de.di.data_profiling.INDProfiler;
 import de.di.data_profiling.UCCProfiler;
 import de.di.data_profiling.structures.IND;
 import de.di.data_profiling.structures.UCC;
+import de.di.duplicate_detection.LSHBlocking;
 import de.di.duplicate_detection.RecordComparator;
 import de.di.duplicate_detection.SortedNeighborhood;
 import de.di.duplicate_detection.TransitiveClosure;
 import de.di.duplicate_detection.structures.Duplicate;
+import de.di.helper.InterningPool;
+import de.di.helper.RowSample;
 import de.di.schema_matching.FirstLineSchemaMatcher;
 import de.di.schema_matching.SecondLineSchemaMatcher;
 import de.di.schema_matching.helper.AUCPR;
@@ -22,6 +25,8 @@ import de.di.similarity_measures.Jaccard;
 import de.di.similarity_measures.Levenshtein;
 import de.di.similarity_measures.LocalitySensitiveHashing;
 import de.di.similarity_measures.SimilarityMeasure;
+import de.di.similarity_measures.helper.BandedLSHIndex;
+import de.di.similarity_measures.helper.OnePermutationMinHash;
 import de.di.similarity_measures.helper.Tokenizer;
 
 import java.io.File;
@@ -31,6 +36,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -46,6 +52,7 @@ public class Main {
         CommandFirstLineSchemaMatcher commandFirstLineSchemaMatcher = new CommandFirstLineSchemaMatcher();
         CommandSecondLineSchemaMatcher commandSecondLineSchemaMatcher = new CommandSecondLineSchemaMatcher();
         CommandDuplicateDetection commandDuplicateDetection = new CommandDuplicateDetection();
+        CommandSnapshot commandSnapshot = new CommandSnapshot();
 
         JCommander jCommander = JCommander.newBuilder()
                 .addCommand(CommandJaccard.COMMAND, commandJaccard)
@@ -56,6 +63,7 @@ public class Main {
                 .addCommand(CommandFirstLineSchemaMatcher.COMMAND, commandFirstLineSchemaMatcher)
                 .addCommand(CommandSecondLineSchemaMatcher.COMMAND, commandSecondLineSchemaMatcher)
                 .addCommand(CommandDuplicateDetection.COMMAND, commandDuplicateDetection)
+                .addCommand(CommandSnapshot.COMMAND, commandSnapshot)
                 .build();
 
         try {
@@ -78,38 +86,123 @@ public class Main {
                     System.out.println(levenshtein.calculate(commandLevenshtein.string1, commandLevenshtein.string2));
                     break;
                 case CommandLocalitySensitiveHashing.COMMAND:
-                    SimilarityMeasure localitySensitiveHashing = new LocalitySensitiveHashing(new Tokenizer(commandLocalitySensitiveHashing.tokenSize, commandLocalitySensitiveHashing.usePadding), commandLocalitySensitiveHashing.numHashFunctions);
+                    SimilarityMeasure localitySensitiveHashing = new LocalitySensitiveHashing(new Tokenizer(commandLocalitySensitiveHashing.tokenSize, commandLocalitySensitiveHashing.usePadding), commandLocalitySensitiveHashing.numHashFunctions, commandLocalitySensitiveHashing.unicode);
                     System.out.println(localitySensitiveHashing.calculate(commandLocalitySensitiveHashing.string1, commandLocalitySensitiveHashing.string2));
                     break;
                 case CommandUCCProfiler.COMMAND:
                     UCCProfiler uccProfiler = new UCCProfiler();
                     List<UCC> uccResult = new ArrayList<>();
-                    for (Relation relation : Relation.readAllRelationsIn(commandUCCProfiler.inputPath, commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), StandardCharsets.UTF_8))
-                        uccResult.addAll(uccProfiler.profile(relation));
+                    RowSample uccSample = parseSample(commandUCCProfiler.sample);
+                    if (commandUCCProfiler.batchSize > 0 && uccSample != null)
+                        throw new ParameterException("--sample loads the records into memory and cannot be combined with --batchSize, which streams them.");
+                    if (commandUCCProfiler.batchSize > 0) {
+                        for (Path path : scanFiles(commandUCCProfiler.inputPath)) {
+                            // Snapshots are binary and cannot be streamed, but they are already columnar and are profiled as such
+                            if (RelationSnapshot.isSnapshot(path)) {
+                                uccResult.addAll(uccProfiler.profile(RelationSnapshot.open(path)));
+                                continue;
+                            }
+                            try (RelationReader reader = new RelationReader(path, commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), StandardCharsets.UTF_8, commandUCCProfiler.memoryMapped)) {
+                                if (commandUCCProfiler.interning)
+                                    reader.interning(new InterningPool());
+                                uccResult.addAll(uccProfiler.profile(reader, commandUCCProfiler.batchSize));
+                            }
+                        }
+                    } else {
+                        RelationLoader loader = new RelationLoader(commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), StandardCharsets.UTF_8);
+                        loader.setNumThreads(commandUCCProfiler.numThreads);
+                        loader.setMemoryMapped(commandUCCProfiler.memoryMapped);
+                        loader.setNumParseThreads(commandUCCProfiler.numParseThreads);
+                        loader.setInterning(commandUCCProfiler.interning);
+                        loader.setSample(uccSample);
+                        // Snapshots are profiled in their columnar form, so that their values are never decoded
+                        if (containsSnapshots(commandUCCProfiler.inputPath)) {
+                            for (ColumnarRelation relation : loader.loadAllColumnar(commandUCCProfiler.inputPath))
+                                uccResult.addAll(uccProfiler.profile(relation));
+                        } else {
+                            for (Relation relation : loader.loadAll(commandUCCProfiler.inputPath))
+                                uccResult.addAll(uccProfiler.profile(relation));
+                        }
+                        if (commandUCCProfiler.numThreads > 1 || commandUCCProfiler.interning)
+                            loader.getStatistics().forEach(System.out::println);
+                    }
                     uccResult.forEach(System.out::println);
                     break;
                 case CommandINDProfiler.COMMAND:
                     INDProfiler indProfiler = new INDProfiler();
-                    List<Relation> relations = Relation.readAllRelationsIn(commandINDProfiler.inputPath, commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), StandardCharsets.UTF_8);
-                    List<IND> indResult = indProfiler.profile(relations, commandINDProfiler.discoverNary);
+                    List<IND> indResult;
+                    RowSample indSample = parseSample(commandINDProfiler.sample);
+                    if (commandINDProfiler.batchSize > 0 && indSample != null)
+                        throw new ParameterException("--sample loads the records into memory and cannot be combined with --batchSize, which streams them.");
+                    if (commandINDProfiler.batchSize > 0) {
+                        List<Path> paths = scanFiles(commandINDProfiler.inputPath);
+                        for (Path path : paths)
+                            if (RelationSnapshot.isSnapshot(path))
+                                throw new ParameterException("The snapshot " + path + " cannot be streamed; profile snapshots without --batchSize.");
+
+                        // The readers are opened only when their relation is profiled, so that one file is open at a time
+                        List<Supplier<RelationReader>> readers = new ArrayList<>();
+                        for (Path path : paths) {
+                            readers.add(() -> {
+                                RelationReader reader = new RelationReader(path, commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), StandardCharsets.UTF_8, commandINDProfiler.memoryMapped);
+                                return commandINDProfiler.interning ? reader.interning(new InterningPool()) : reader;
+                            });
+                        }
+                        indResult = indProfiler.profileStreams(readers, commandINDProfiler.batchSize, commandINDProfiler.discoverNary);
+                    } else {
+                        RelationLoader loader = new RelationLoader(commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), StandardCharsets.UTF_8);
+                        loader.setNumThreads(commandINDProfiler.numThreads);
+                        loader.setMemoryMapped(commandINDProfiler.memoryMapped);
+                        loader.setNumParseThreads(commandINDProfiler.numParseThreads);
+                        loader.setInterning(commandINDProfiler.interning);
+                        loader.setSample(indSample);
+                        // Snapshots are profiled in their columnar form, which supports only unary INDs
+                        if (containsSnapshots(commandINDProfiler.inputPath) && !commandINDProfiler.discoverNary) {
+                            List<ColumnarRelation> relations = loader.loadAllColumnar(commandINDProfiler.inputPath);
+                            indResult = indProfiler.profileColumnar(relations, false);
+                        } else {
+                            List<Relation> relations = loader.loadAll(commandINDProfiler.inputPath);
+                            indResult = indProfiler.profile(relations, commandINDProfiler.discoverNary);
+                        }
+                        if (commandINDProfiler.numThreads > 1 || commandINDProfiler.interning)
+                            loader.getStatistics().forEach(System.out::println);
+                    }
                     indResult.forEach(System.out::println);
                     break;
                 case CommandFirstLineSchemaMatcher.COMMAND:
-                    runMatchingFor(commandFirstLineSchemaMatcher.scenarioPath, false);
+                    runMatchingFor(commandFirstLineSchemaMatcher.scenarioPath, false, parseSample(commandFirstLineSchemaMatcher.sample));
                     break;
                 case CommandSecondLineSchemaMatcher.COMMAND:
-                    runMatchingFor(commandSecondLineSchemaMatcher.scenarioPath, true);
+                    runMatchingFor(commandSecondLineSchemaMatcher.scenarioPath, true, null);
                     break;
                 case CommandDuplicateDetection.COMMAND:
                     Relation relation = new Relation(commandDuplicateDetection.scenarioPath, commandDuplicateDetection.hasHeader, commandDuplicateDetection.separator.charAt(0), StandardCharsets.ISO_8859_1);
                     RecordComparator recordComparator = SortedNeighborhood.suggestRecordComparatorFor(relation);
-                    SortedNeighborhood sortedNeighborhood = new SortedNeighborhood();
                     int[] sortingKeys = Arrays.stream(commandDuplicateDetection.sortingKeys.split(",")).mapToInt(Integer::parseInt).toArray();
-                    Set<Duplicate> duplicates = sortedNeighborhood.detectDuplicates(relation, sortingKeys, commandDuplicateDetection.windowSize, recordComparator);
+                    Set<Duplicate> duplicates;
+                    if (commandDuplicateDetection.lshThreshold > 0) {
+                        LocalitySensitiveHashing blockingLsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(commandDuplicateDetection.numHashFunctions, 0));
+                        BandedLSHIndex blockingIndex = BandedLSHIndex.forThreshold(commandDuplicateDetection.lshThreshold, blockingLsh.getSignatureLength());
+                        try {
+                            blockingIndex.setMaxBucketSize(commandDuplicateDetection.lshMaxBucketSize);
+                        } catch (IllegalArgumentException e) {
+                            throw new ParameterException(e.getMessage());
+                        }
+                        LSHBlocking lshBlocking = new LSHBlocking(blockingLsh, blockingIndex);
+                        duplicates = lshBlocking.detectDuplicates(relation, sortingKeys, recordComparator);
+                        if (blockingIndex.getNumOversizedBuckets() > 0)
+                            System.err.println("Warning: " + blockingIndex.getNumOversizedBuckets() + " LSH buckets had more than " + blockingIndex.getMaxBucketSize() + " records; only their adjacent records were compared, and the transitive closure completes their duplicates.");
+                    } else {
+                        SortedNeighborhood sortedNeighborhood = new SortedNeighborhood();
+                        duplicates = sortedNeighborhood.detectDuplicates(relation, sortingKeys, commandDuplicateDetection.windowSize, recordComparator);
+                    }
                     TransitiveClosure transitiveClosure = new TransitiveClosure();
                     duplicates = transitiveClosure.calculate(duplicates);
                     duplicates.forEach(System.out::println);
                     break;
+                case CommandSnapshot.COMMAND:
+                    writeSnapshots(commandSnapshot);
+                    break;
                 default:
                     throw new AssertionError();
             }
@@ -178,6 +271,9 @@ public class Main {
 
         @Parameter(names = {"--numHashFunctions"}, description = "Specification of the number of minHash functions to be used", required = false, arity = 1)
         int numHashFunctions = 20;
+
+        @Parameter(names = {"--unicode"}, description = "Specification of whether the minHash functions should rank all characters randomly instead of only the ASCII characters", required = false, arity = 1)
+        boolean unicode = false;
     }
 
     @Parameters(commandDescription = "Execute the UCCProfiler data profiling algorithm.")
@@ -193,6 +289,24 @@ public class Main {
 
         @Parameter(names = {"--separator"}, description = "File separator character", required = false, arity = 1)
         String separator = ";";
+
+        @Parameter(names = {"--batchSize"}, description = "Number of records to stream per batch instead of loading entire files; 0 loads entire files", required = false, arity = 1)
+        int batchSize = 0;
+
+        @Parameter(names = {"--threads"}, description = "Number of files to load in parallel; per-file load statistics are printed if greater than 1", required = false, arity = 1)
+        int numThreads = 1;
+
+        @Parameter(names = {"--memoryMapped"}, description = "Parse files with the memory-mapped CSV parser instead of OpenCSV", required = false, arity = 1)
+        boolean memoryMapped = false;
+
+        @Parameter(names = {"--parseThreads"}, description = "Number of threads that parse chunks of a single file; implies the memory-mapped CSV parser if greater than 1", required = false, arity = 1)
+        int numParseThreads = 1;
+
+        @Parameter(names = {"--intern"}, description = "Let equal values of a column share one String instance; without batchSize, per-file load statistics with the saved bytes are printed", required = false, arity = 1)
+        boolean interning = false;
+
+        @Parameter(names = {"--sample"}, description = "Load only a sample of the records of every file: first:N, reservoir:N[:seed] or fraction:P[:seed]; cannot be combined with --batchSize", required = false, arity = 1)
+        String sample = null;
     }
 
     @Parameters(commandDescription = "Execute the INDProfiler data profiling algorithm.")
@@ -211,6 +325,24 @@ public class Main {
 
         @Parameter(names = {"--discoverNary"}, description = "Flag to indicate whether n-ary INDs should be discovered as well", required = false, arity = 1)
         boolean discoverNary = false;
+
+        @Parameter(names = {"--batchSize"}, description = "Number of records to stream per batch instead of loading entire files; 0 loads entire files", required = false, arity = 1)
+        int batchSize = 0;
+
+        @Parameter(names = {"--threads"}, description = "Number of files to load in parallel; per-file load statistics are printed if greater than 1", required = false, arity = 1)
+        int numThreads = 1;
+
+        @Parameter(names = {"--memoryMapped"}, description = "Parse files with the memory-mapped CSV parser instead of OpenCSV", required = false, arity = 1)
+        boolean memoryMapped = false;
+
+        @Parameter(names = {"--parseThreads"}, description = "Number of threads that parse chunks of a single file; implies the memory-mapped CSV parser if greater than 1", required = false, arity = 1)
+        int numParseThreads = 1;
+
+        @Parameter(names = {"--intern"}, description = "Let equal values of a column share one String instance; without batchSize, per-file load statistics with the saved bytes are printed", required = false, arity = 1)
+        boolean interning = false;
+
+        @Parameter(names = {"--sample"}, description = "Load only a sample of the records of every file: first:N, reservoir:N[:seed] or fraction:P[:seed]; cannot be combined with --batchSize", required = false, arity = 1)
+        String sample = null;
     }
 
     @Parameters(commandDescription = "Execute the FirstLineSchemaMatcher algorithm.")
@@ -220,6 +352,9 @@ public class Main {
 
         @Parameter(names = {"--scenarioPath"}, description = "Path of the matching scenario", required = true, arity = 1)
         String scenarioPath;
+
+        @Parameter(names = {"--sample"}, description = "Load only a sample of the records of the source and target files: first:N, reservoir:N[:seed] or fraction:P[:seed]", required = false, arity = 1)
+        String sample = null;
     }
 
     @Parameters(commandDescription = "Execute the SecondLineSchemaMatcher algorithm.")
@@ -250,9 +385,42 @@ public class Main {
 
         @Parameter(names = {"--windowSize"}, description = "Window size for the Sorted Neighborhood Method", required = false, arity = 1)
         int windowSize = 5;
+
+        @Parameter(names = {"--lshThreshold"}, description = "Use LSH blocking on the sorting key attributes with this Jaccard threshold instead of the Sorted Neighborhood Method; 0 uses the Sorted Neighborhood Method", required = false, arity = 1)
+        double lshThreshold = 0;
+
+        @Parameter(names = {"--numHashFunctions"}, description = "Number of MinHash signature components for LSH blocking", required = false, arity = 1)
+        int numHashFunctions = 128;
+
+        @Parameter(names = {"--lshMaxBucketSize"}, description = "Maximum number of records of an LSH bucket whose pairs are all compared; larger buckets compare only adjacent records", required = false, arity = 1)
+        int lshMaxBucketSize = BandedLSHIndex.DEFAULT_MAX_BUCKET_SIZE;
+    }
+
+    @Parameters(commandDescription = "Convert all CSV files of a folder into relation snapshots; snapshot files can be used as input of the profiling commands.")
+    private static class CommandSnapshot {
+
+        public static final String COMMAND = "Snapshot";
+
+        @Parameter(names = {"--input"}, description = "Path of the input folder; all files in that folder will be converted", required = true, arity = 1)
+        String inputPath;
+
+        @Parameter(names = {"--output"}, description = "Path of the output folder for the snapshot files", required = true, arity = 1)
+        String outputPath;
+
+        @Parameter(names = {"--hasHeader"}, description = "File has header flag", required = false, arity = 1)
+        boolean hasHeader = true;
+
+        @Parameter(names = {"--separator"}, description = "File separator character", required = false, arity = 1)
+        String separator = ";";
+
+        @Parameter(names = {"--batchSize"}, description = "Number of records to hold in memory while encoding a file", required = false, arity = 1)
+        int batchSize = 10000;
+
+        @Parameter(names = {"--memoryMapped"}, description = "Parse files with the memory-mapped CSV parser instead of OpenCSV", required = false, arity = 1)
+        boolean memoryMapped = false;
     }
 
-    private static void runMatchingFor(String scenarioPath, boolean withSecondLineMatcher) {
+    private static void runMatchingFor(String scenarioPath, boolean withSecondLineMatcher, RowSample sample) {
         List<Path> sources = scanFiles(scenarioPath + File.separator + "source");
         List<Path> targets = scanFiles(scenarioPath + File.separator + "target");
 
@@ -267,8 +435,10 @@ public class Main {
                     continue;
 
                 // Load the relations and ground truth data
-                Relation sourceRelation = new Relation(source.toString(), true, ',', StandardCharsets.UTF_8);
-                Relation targetRelation = new Relation(target.toString(), true, ',', StandardCharsets.UTF_8);
+                RelationLoader loader = new RelationLoader(true, ',', StandardCharsets.UTF_8);
+                loader.setSample(sample);
+                Relation sourceRelation = loader.load(source);
+                Relation targetRelation = loader.load(target);
                 Relation groundRelation = new Relation(groundTruth.toString(), false, ',', StandardCharsets.UTF_8);
 
                 // Calculate first-line matching
@@ -308,6 +478,40 @@ public class Main {
         }
     }
 
+    private static RowSample parseSample(String specification) {
+        if (specification == null)
+            return null;
+        try {
+            return RowSample.parse(specification);
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException(e.getMessage());
+        }
+    }
+
+    private static void writeSnapshots(CommandSnapshot command) {
+        try {
+            Path inputPath = Path.of(command.inputPath);
+            for (Path path : scanFiles(command.inputPath)) {
+                // Relation names drop everything after the first dot and the folder, so they are not unique within the
+                // input; the snapshot keeps the relative path and full file name of its input, e.g., a/b.csv.gz.snapshot
+                Path relativePath = Files.isDirectory(inputPath) ? inputPath.relativize(path) : path.getFileName();
+                Path snapshot = Path.of(command.outputPath).resolve(relativePath + RelationSnapshot.FILE_EXTENSION);
+                Files.createDirectories(snapshot.getParent());
+
+                RelationReader reader = new RelationReader(path, command.hasHeader, command.separator.charAt(0), StandardCharsets.UTF_8, command.memoryMapped);
+                ColumnarRelation relation = new ColumnarRelation(reader, command.batchSize);
+                RelationSnapshot.write(relation, snapshot);
+                System.out.println(path + " -> " + snapshot + " (" + Files.size(path) + " -> " + Files.size(snapshot) + " bytes)");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean containsSnapshots(String folderPath) {
+        return scanFiles(folderPath).stream().anyMatch(RelationSnapshot::isSnapshot);
+    }
+
     private static List<Path> scanFiles(String folderPath) {
         try (Stream<Path> paths = Files.walk(Paths.get(folderPath))) {
             return paths.filter(Files::isRegularFile).collect(Collectors.toList());
@@ -1,15 +1,8 @@
 package de.di;
 
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.enums.CSVReaderNullFieldIndicator;
-import com.opencsv.exceptions.CsvValidationException;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -19,16 +12,32 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * A Relation holds the name, the attributes and the records of a table. Relations are immutable: their columns are
+ * transposed lazily and cached, so that the records returned by getRecords() must not be modified, and relations can
+ * be shared among threads, e.g., by the parallel profilers.
+ */
 @Getter
-@AllArgsConstructor
 public class Relation {
 
-    private String name;
-    private String[] attributes;
-    private String[][] records;
+    private final String name;
+    private final String[] attributes;
+    private final String[][] records;
+
+    // The lazily transposed columns of the records; a column is null until it is requested for the first time.
+    @Getter(AccessLevel.NONE)
+    private final AtomicReferenceArray<String[]> columns;
+
+    public Relation(String name, String[] attributes, String[][] records) {
+        this.name = name;
+        this.attributes = attributes;
+        this.records = records;
+        this.columns = new AtomicReferenceArray<>(attributes.length);
+    }
 
     public static List<Relation> readAllRelationsIn(String folderPath, boolean hasHeader, char separator, Charset charset) {
         try (Stream<Path> paths = Files.walk(Paths.get(folderPath))) {
@@ -40,6 +49,12 @@ public class Relation {
         }
     }
 
+    public static List<Relation> readAllRelationsIn(String folderPath, boolean hasHeader, char separator, Charset charset, int numThreads) {
+        RelationLoader loader = new RelationLoader(hasHeader, separator, charset);
+        loader.setNumThreads(numThreads);
+        return loader.loadAll(folderPath);
+    }
+
     public Relation(String filePath) {
         this(filePath, true, ';', StandardCharsets.UTF_8);
     }
@@ -49,59 +64,59 @@ public class Relation {
     }
 
     public Relation(Path filePath, boolean hasHeader, char separator, Charset charset) {
-        this.name = filePath.getFileName().toString().split("\\.")[0];
-
-        CSVParser parser = new CSVParserBuilder()
-                .withSeparator(separator)
-                .withQuoteChar('"')
-                .withEscapeChar('\\')
-                .withStrictQuotes(false)
-                .withIgnoreLeadingWhiteSpace(false)
-                .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
-                .build();
-
-        ArrayList<String[]> records;
-        try {
-            BufferedReader buffer = Files.newBufferedReader(filePath, charset);
-            CSVReader reader = new CSVReaderBuilder(buffer).withCSVParser(parser).build();
-
-            if (hasHeader)
-                this.attributes = reader.readNext();
-
-            records = new ArrayList<>();
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                for (int i = 0; i < line.length; i++)
-                    if (line[i] == null)
-                        line[i] = "";
-                records.add(line);
-            }
-            reader.close();
-        } catch (CsvValidationException | IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        this.records = new String[records.size()][];
-        for (int i = 0; i < records.size(); i++)
-            this.records[i] = records.get(i);
+        this(new RelationReader(filePath, hasHeader, separator, charset));
+    }
 
-        if (!hasHeader && this.records.length != 0) {
-            this.attributes = new String[this.records[0].length];
-            for (int i = 0; i < this.records[0].length; i++)
-                this.attributes[i] = String.valueOf(i);
+    /**
+     * Loads all remaining records of the provided reader into a new relation and closes the reader.
+     * @param reader The reader to load the relation from.
+     */
+    public Relation(RelationReader reader) {
+        try (reader) {
+            this.name = reader.getName();
+            this.attributes = reader.getAttributes();
+
+            List<String[]> records = new ArrayList<>();
+            reader.forEachRemaining(records::add);
+            this.records = records.toArray(new String[0][]);
+            this.columns = new AtomicReferenceArray<>(this.attributes.length);
         }
     }
 
+    /**
+     * Returns the column-major view of the records. The columns are copies that the caller may modify; read-only
+     * callers should use getColumn(), which returns the cached columns without copying them.
+     * @return The columns of this relation.
+     */
     public String[][] getColumns() {
         String[][] columns = new String[this.attributes.length][];
         for (int i = 0; i < columns.length; i++)
-            columns[i] = new String[this.records.length];
-        for (int j = 0; j < this.records.length; j++)
-            for (int i = 0; i < columns.length; i++)
-                columns[i][j] = this.records[j][i];
+            columns[i] = this.getColumn(i).clone();
         return columns;
     }
 
+    /**
+     * Returns the values of a single attribute. Only the requested column is transposed and cached, so callers that
+     * need few attributes do not pay for a full transposition. The returned array is shared by all callers and must
+     * not be modified.
+     * @param attribute The index of the attribute.
+     * @return The values of the attribute in record order.
+     */
+    public String[] getColumn(int attribute) {
+        String[] column = this.columns.get(attribute);
+        if (column != null)
+            return column;
+
+        column = new String[this.records.length];
+        for (int j = 0; j < this.records.length; j++)
+            column[j] = this.records[j][attribute];
+
+        // Threads that transpose the same column concurrently all return the column that was published first
+        if (!this.columns.compareAndSet(attribute, null, column))
+            column = this.columns.get(attribute);
+        return column;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
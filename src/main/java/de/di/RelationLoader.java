@@ -0,0 +1,233 @@
+package de.di;
+
+import de.di.helper.CompressedInput;
+import de.di.helper.InterningPool;
+import de.di.helper.ParallelCSVParser;
+import de.di.helper.RowSample;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A RelationLoader loads CSV files into Relations with a fixed configuration. Besides the CSV format, the loader
+ * controls how many files are parsed concurrently, how many threads parse each single file, whether equal values are
+ * interned, and which records are sampled; it also records load statistics for every file it has parsed.
+ */
+@Getter
+@Setter
+public class RelationLoader {
+
+    // The file has header flag.
+    private final boolean hasHeader;
+
+    // The file separator character.
+    private final char separator;
+
+    // The charset of the files.
+    private final Charset charset;
+
+    // The number of files that are parsed concurrently by loadAll(); 1 parses all files on the calling thread.
+    private int numThreads = 1;
+
+    // Whether the files should be parsed with the memory-mapped MappedCSVParser instead of OpenCSV.
+    private boolean memoryMapped = false;
+
+    // The number of threads that parse chunks of a single file; values greater than 1 imply memory-mapped parsing.
+    private int numParseThreads = 1;
+
+    // Whether equal values of a column should share one String instance in the loaded relations.
+    private boolean interning = false;
+
+    // The records that should be loaded of every file; null loads all records.
+    private RowSample sample = null;
+
+    // The load statistics of all files that this loader has parsed so far.
+    private final List<FileStatistics> statistics = Collections.synchronizedList(new ArrayList<>());
+
+    public RelationLoader(boolean hasHeader, char separator, Charset charset) {
+        this.hasHeader = hasHeader;
+        this.separator = separator;
+        this.charset = charset;
+    }
+
+    /**
+     * The load statistics of a single file, i.e., its size, the time it took to parse it, and the heap bytes that the
+     * interning of its values saved.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class FileStatistics {
+
+        private final Path path;
+        private final long bytes;
+        private final long nanos;
+        private final long savedBytes;
+
+        public double bytesPerSecond() {
+            return (this.nanos == 0) ? 0 : this.bytes * 1_000_000_000.0 / this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            String statistics = String.format("%s: %d bytes in %d ms (%.1f MB/s)", this.path.getFileName(), this.bytes,
+                    this.nanos / 1_000_000, this.bytesPerSecond() / (1024 * 1024));
+            return (this.savedBytes > 0) ? statistics + String.format(", interning saved %d bytes", this.savedBytes) : statistics;
+        }
+    }
+
+    /**
+     * Loads a single file into a relation and records its load statistics. Snapshot files, i.e., files with the
+     * RelationSnapshot.FILE_EXTENSION, are recognized by their extension and decoded instead of parsed; algorithms
+     * that accept columnar relations should use loadColumnar() for snapshots, which does not decode them.
+     * @param filePath The path of the CSV file.
+     * @return The loaded relation.
+     */
+    public Relation load(Path filePath) {
+        long start = System.nanoTime();
+        InterningPool interningPool = this.interning ? new InterningPool() : null;
+        Relation relation;
+        if (RelationSnapshot.isSnapshot(filePath)) {
+            // The values of a snapshot already share the instances of their dictionaries
+            ColumnarRelation snapshot = RelationSnapshot.open(filePath);
+            relation = (this.sample == null) ? snapshot.toRelation() : new Relation(snapshot.getName(),
+                    snapshot.getAttributes(), this.sample.draw(snapshot.records()).toArray(new String[0][]));
+        } else if (this.numParseThreads > 1 && this.sample == null && !CompressedInput.isCompressed(filePath)) {
+            relation = this.loadChunked(filePath, interningPool);
+        } else {
+            RelationReader reader = new RelationReader(filePath, this.hasHeader, this.separator, this.charset, this.memoryMapped);
+            if (interningPool != null)
+                reader.interning(interningPool);
+            relation = (this.sample == null) ? new Relation(reader) : this.loadSample(reader);
+        }
+        this.addStatistics(filePath, System.nanoTime() - start, interningPool);
+        return relation;
+    }
+
+    /**
+     * Loads a single file into a columnar relation and records its load statistics. Snapshot files are opened
+     * without decoding their values, unless a sample is configured; all other files are loaded with load() and then
+     * encoded.
+     * @param filePath The path of the CSV or snapshot file.
+     * @return The loaded columnar relation.
+     */
+    public ColumnarRelation loadColumnar(Path filePath) {
+        if (!RelationSnapshot.isSnapshot(filePath) || this.sample != null)
+            return new ColumnarRelation(this.load(filePath));
+
+        long start = System.nanoTime();
+        ColumnarRelation relation = RelationSnapshot.open(filePath);
+        this.addStatistics(filePath, System.nanoTime() - start, null);
+        return relation;
+    }
+
+    private void addStatistics(Path filePath, long nanos, InterningPool interningPool) {
+        try {
+            long savedBytes = (interningPool == null) ? 0 : interningPool.getSavedBytes();
+            this.statistics.add(new FileStatistics(filePath, Files.size(filePath), nanos, savedBytes));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Relation loadSample(RelationReader reader) {
+        try (reader) {
+            List<String[]> records = this.sample.draw(reader);
+            return new Relation(reader.getName(), reader.getAttributes(), records.toArray(new String[0][]));
+        }
+    }
+
+    private Relation loadChunked(Path filePath, InterningPool interningPool) {
+        String name;
+        String[] attributes;
+        try (RelationReader reader = new RelationReader(filePath, this.hasHeader, this.separator, this.charset, true)) {
+            name = reader.getName();
+            attributes = reader.getAttributes();
+        }
+
+        ParallelCSVParser parser = new ParallelCSVParser(filePath, this.separator, this.charset, this.numParseThreads);
+        // The chunks are interned while they are parsed, so that the un-interned file is never held in memory
+        List<String[]> records = parser.parseAll(this.hasHeader, interningPool);
+        return new Relation(name, attributes, records.toArray(new String[0][]));
+    }
+
+    /**
+     * Loads all files in the provided folder (and its sub-folders). If numThreads is greater than one, the files are
+     * parsed concurrently on a pool of that many threads; the returned relations are, nevertheless, always in the
+     * same order as the files are listed by the file system walk, and so are their statistics.
+     * @param folderPath The path of the folder.
+     * @return The loaded relations in file walk order.
+     */
+    public List<Relation> loadAll(String folderPath) {
+        return this.loadAll(folderPath, this::load);
+    }
+
+    /**
+     * Loads all files in the provided folder (and its sub-folders) into columnar relations like loadAll() does, but
+     * with loadColumnar(), such that snapshot files are not decoded.
+     * @param folderPath The path of the folder.
+     * @return The loaded columnar relations in file walk order.
+     */
+    public List<ColumnarRelation> loadAllColumnar(String folderPath) {
+        return this.loadAll(folderPath, this::loadColumnar);
+    }
+
+    private <T> List<T> loadAll(String folderPath, Function<Path, T> loader) {
+        List<Path> filePaths;
+        try (Stream<Path> paths = Files.walk(Paths.get(folderPath))) {
+            filePaths = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (this.numThreads <= 1)
+            return filePaths.stream().map(loader).collect(Collectors.toList());
+
+        int firstStatistics = this.statistics.size();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.numThreads, Math.max(1, filePaths.size())));
+        try {
+            List<Future<T>> futures = new ArrayList<>(filePaths.size());
+            for (Path filePath : filePaths)
+                futures.add(executor.submit(() -> loader.apply(filePath)));
+
+            List<T> relations = new ArrayList<>(futures.size());
+            for (Future<T> future : futures)
+                relations.add(future.get());
+
+            // The statistics were added in the order in which the files were finished; sort them into file walk order
+            Map<Path, Integer> walkIndexes = new HashMap<>();
+            for (int i = 0; i < filePaths.size(); i++)
+                walkIndexes.put(filePaths.get(i), i);
+            synchronized (this.statistics) {
+                this.statistics.subList(firstStatistics, this.statistics.size())
+                        .sort(Comparator.comparingInt(fileStatistics -> walkIndexes.get(fileStatistics.getPath())));
+            }
+            return relations;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package de.di;
+
+import de.di.helper.CompressedInput;
+import de.di.helper.InterningPool;
+import de.di.helper.MappedCSVParser;
+import de.di.helper.OpenCSVRecordParser;
+import de.di.helper.RecordParser;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A RelationReader is a forward-only cursor over the records of a CSV file. In contrast to a Relation, it never holds
+ * more than the records of the current batch in memory, which allows algorithms to consume files that are larger than
+ * the heap. A RelationReader can be consumed only once and should be closed after use.
+ */
+public class RelationReader implements Iterator<String[]>, Closeable {
+
+    // The name of the relation, i.e., the file name without extension.
+    @Getter
+    private final String name;
+
+    // The attribute labels of the relation; generated as "0", "1", ... if the file has no header.
+    @Getter
+    private final String[] attributes;
+
+    // The underlying parser that splits the file into records.
+    private final RecordParser parser;
+
+    // The pool that deduplicates the values of all returned records; null if values are not interned.
+    @Getter
+    private InterningPool interningPool = null;
+
+    // The next record that will be returned by next(); null if the reader is exhausted.
+    private String[] nextRecord;
+
+    // Whether the parser has been closed already.
+    private boolean closed = false;
+
+    public RelationReader(String filePath, boolean hasHeader, char separator, Charset charset) {
+        this(Path.of(filePath), hasHeader, separator, charset);
+    }
+
+    public RelationReader(Path filePath, boolean hasHeader, char separator, Charset charset) {
+        this(filePath, hasHeader, separator, charset, false);
+    }
+
+    /**
+     * Opens a reader on the provided CSV file.
+     * @param filePath The path of the CSV file.
+     * @param hasHeader File has header flag.
+     * @param separator The file separator character.
+     * @param charset The charset of the file.
+     * @param memoryMapped Whether the file should be parsed with the memory-mapped MappedCSVParser instead of OpenCSV;
+     *                     ignored for compressed files, which are decompressed on a separate thread while being parsed.
+     */
+    public RelationReader(Path filePath, boolean hasHeader, char separator, Charset charset, boolean memoryMapped) {
+        this.name = filePath.getFileName().toString().split("\\.")[0];
+
+        // Snapshots are binary and would be parsed as garbage records; they are opened with RelationSnapshot.open()
+        if (RelationSnapshot.isSnapshot(filePath))
+            throw new IllegalArgumentException("The relation snapshot " + filePath + " cannot be read as a CSV file.");
+
+        try {
+            // Compressed files cannot be mapped, so they are always parsed from the decompressed stream
+            if (CompressedInput.isCompressed(filePath))
+                this.parser = new OpenCSVRecordParser(new BufferedReader(new InputStreamReader(CompressedInput.open(filePath), charset), 1 << 16), separator);
+            else if (memoryMapped)
+                this.parser = new MappedCSVParser(filePath, separator, charset);
+            else
+                this.parser = new OpenCSVRecordParser(Files.newBufferedReader(filePath, charset), separator);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        // The caller cannot close a reader whose constructor fails, so the parser is closed here
+        String[] header;
+        try {
+            header = hasHeader ? this.parser.readNext() : null;
+            this.nextRecord = this.parser.readNext();
+        } catch (RuntimeException e) {
+            this.parser.close();
+            throw e;
+        }
+
+        if (header == null) {
+            int numAttributes = (this.nextRecord == null) ? 0 : this.nextRecord.length;
+            header = new String[numAttributes];
+            for (int i = 0; i < numAttributes; i++)
+                header[i] = String.valueOf(i);
+        }
+        this.attributes = header;
+    }
+
+    /**
+     * Makes this reader deduplicate the values of all records that it returns from now on with the provided pool, such
+     * that equal values of the same column share one String instance.
+     * @param interningPool The pool to intern the values with.
+     * @return This reader.
+     */
+    public RelationReader interning(InterningPool interningPool) {
+        this.interningPool = interningPool;
+        if (this.nextRecord != null)
+            this.interningPool.intern(this.nextRecord);
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.nextRecord != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (this.nextRecord == null)
+            throw new NoSuchElementException();
+        String[] record = this.nextRecord;
+        this.nextRecord = this.parser.readNext();
+        if (this.interningPool != null && this.nextRecord != null)
+            this.interningPool.intern(this.nextRecord);
+        return record;
+    }
+
+    /**
+     * Reads the next batch of records from the file. The batch size bounds the number of records that the caller has
+     * to keep in memory at the same time.
+     * @param batchSize The maximum number of records in the batch.
+     * @return The next at most batchSize records; an empty list if the reader is exhausted.
+     */
+    public List<String[]> nextBatch(int batchSize) {
+        List<String[]> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        while (batch.size() < batchSize && this.hasNext())
+            batch.add(this.next());
+        return batch;
+    }
+
+    /**
+     * Creates a relation that carries only the name and the schema of this reader. Algorithms that stream over the
+     * records use this relation as a reference in their results.
+     * @return A relation without records, but with the name and attributes of this reader.
+     */
+    public Relation toSchemaRelation() {
+        return new Relation(this.name, this.attributes, new String[0][]);
+    }
+
+    /**
+     * Closes the underlying parser; closing a closed reader has no effect.
+     */
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        this.closed = true;
+        this.parser.close();
+    }
+}
@@ -0,0 +1,291 @@
+package de.di;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A RelationSnapshot is a compact binary file that stores a relation in its dictionary-encoded, columnar form. A
+ * snapshot is written once and can then be reopened much faster than the original CSV file can be parsed, because
+ * opening only maps the file: the value ids and the dictionary values stay in the memory-mapped file, and a value is
+ * decoded into a String only when it is accessed for the first time.
+ *
+ * The layout of a snapshot file is (all numbers little-endian):
+ * <pre>
+ * header:       magic (int), version (int), offset of the value offsets (long), offset of the value ids (long)
+ * schema:       name (string), number of attributes (int), number of records (int), attribute labels (strings)
+ * dictionaries: per column, the sorted values (strings)
+ * offsets:      per column, the number of distinct values (int) followed by the position of every value relative
+ *               to the end of the header (ints); 4-byte aligned
+ * value ids:    per column, number of records ints; 4-byte aligned
+ * </pre>
+ * A string is stored as its UTF-8 byte length (int) followed by the UTF-8 bytes.
+ */
+public class RelationSnapshot {
+
+    // The file extension of snapshot files.
+    public static final String FILE_EXTENSION = ".snapshot";
+
+    // The magic number "DISN" that identifies snapshot files.
+    private static final int MAGIC = 0x4E534944;
+
+    // The version of the layout; readers reject snapshots of other versions.
+    private static final int VERSION = 2;
+
+    // The size of the fixed header, i.e., magic, version, offsets offset and ids offset.
+    private static final int HEADER_SIZE = 24;
+
+    // The number of value ids per mapped chunk; columns with more records are mapped in several chunks.
+    private static final int CHUNK_LENGTH = 1 << 26;
+
+    private RelationSnapshot() {
+    }
+
+    /**
+     * Writes the provided relation as snapshot into the provided file; an existing file is overwritten.
+     * @param relation The relation to write.
+     * @param filePath The path of the snapshot file.
+     */
+    public static void write(Relation relation, Path filePath) {
+        write(new ColumnarRelation(relation), filePath);
+    }
+
+    /**
+     * Writes the provided columnar relation as snapshot into the provided file; an existing file is overwritten.
+     * @param relation The columnar relation to write.
+     * @param filePath The path of the snapshot file.
+     */
+    public static void write(ColumnarRelation relation, Path filePath) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(0).putLong(0); // the offsets are patched at the end
+
+            putString(buffer, channel, relation.getName());
+            ensureCapacity(buffer, channel, 2 * Integer.BYTES);
+            buffer.putInt(relation.getAttributes().length).putInt(relation.getNumRecords());
+            for (String attribute : relation.getAttributes())
+                putString(buffer, channel, attribute);
+
+            EncodedColumn[] columns = relation.getColumns();
+            int[][] valueOffsets = new int[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                valueOffsets[i] = new int[columns[i].cardinality()];
+                for (int j = 0; j < valueOffsets[i].length; j++) {
+                    long valueOffset = channel.position() + buffer.position() - HEADER_SIZE;
+                    if (valueOffset > Integer.MAX_VALUE)
+                        throw new IllegalArgumentException("The dictionaries of the relation are too large for a snapshot: " + relation.getName());
+                    valueOffsets[i][j] = (int) valueOffset;
+                    putString(buffer, channel, columns[i].getValue(j));
+                }
+            }
+            align(buffer, channel);
+            long offsetsOffset = channel.position() + buffer.position();
+
+            for (int[] offsets : valueOffsets) {
+                ensureCapacity(buffer, channel, Integer.BYTES);
+                buffer.putInt(offsets.length);
+                putInts(buffer, channel, offsets);
+            }
+            flush(buffer, channel);
+            long idsOffset = channel.position();
+
+            for (EncodedColumn column : columns)
+                putInts(buffer, channel, column.getValueIds());
+            flush(buffer, channel);
+
+            ByteBuffer offsets = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(offsetsOffset).putLong(idsOffset);
+            offsets.flip();
+            channel.write(offsets, 2 * Integer.BYTES);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Opens the provided snapshot file as columnar relation. The columns read their value ids and values from the
+     * memory-mapped file, so opening does not depend on the size of the relation. Results of algorithms on the
+     * columnar relation refer to a schema-only relation; use ColumnarRelation.toRelation() if the records are needed.
+     * @param filePath The path of the snapshot file.
+     * @return The columnar relation stored in the snapshot.
+     */
+    public static ColumnarRelation open(Path filePath) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_SIZE, channel.size()));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.remaining() < 2 * Integer.BYTES || header.getInt() != MAGIC)
+                throw new IllegalArgumentException("Not a relation snapshot: " + filePath);
+            int version = header.getInt();
+            if (version != VERSION || header.remaining() < 2 * Long.BYTES)
+                throw new IllegalArgumentException("Unsupported snapshot version " + version + ": " + filePath);
+            long offsetsOffset = header.getLong();
+            long idsOffset = header.getLong();
+            if (idsOffset - HEADER_SIZE > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("The dictionaries of the snapshot are too large to be mapped: " + filePath);
+
+            ByteBuffer schema = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, idsOffset - HEADER_SIZE);
+            schema.order(ByteOrder.LITTLE_ENDIAN);
+            String name = getString(schema);
+            String[] attributes = new String[schema.getInt()];
+            int numRecords = schema.getInt();
+            for (int i = 0; i < attributes.length; i++)
+                attributes[i] = getString(schema);
+
+            EncodedColumn[] columns = new EncodedColumn[attributes.length];
+            schema.position((int) (offsetsOffset - HEADER_SIZE));
+            long position = idsOffset;
+            for (int i = 0; i < attributes.length; i++) {
+                int cardinality = schema.getInt();
+                IntBuffer valueOffsets = schema.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                valueOffsets.limit(cardinality);
+                schema.position(schema.position() + cardinality * Integer.BYTES);
+
+                IntBuffer[] valueIds = new IntBuffer[(numRecords + CHUNK_LENGTH - 1) / CHUNK_LENGTH];
+                for (int j = 0; j < valueIds.length; j++) {
+                    int length = Math.min(CHUNK_LENGTH, numRecords - j * CHUNK_LENGTH);
+                    valueIds[j] = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) length * Integer.BYTES)
+                            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                    position += (long) length * Integer.BYTES;
+                }
+                columns[i] = new MappedColumn(schema, valueOffsets, valueIds, numRecords);
+            }
+            return new ColumnarRelation(name, attributes, columns, numRecords);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * An EncodedColumn whose value ids and values stay in the memory-mapped snapshot file. Values are decoded on their
+     * first access and then cached; concurrent first accesses may decode a value twice, which is harmless, because
+     * Strings are immutable.
+     */
+    private static class MappedColumn extends EncodedColumn {
+
+        // The mapped schema and dictionaries of the snapshot; only absolute reads are used, so it is shared.
+        private final ByteBuffer dictionaries;
+
+        // The positions of the values of this column in the dictionaries buffer, indexed by value id.
+        private final IntBuffer valueOffsets;
+
+        // The mapped value ids of this column in chunks of CHUNK_LENGTH ids.
+        private final IntBuffer[] valueIds;
+
+        private final int numRecords;
+
+        // The values that have already been decoded, indexed by value id.
+        private final String[] values;
+
+        MappedColumn(ByteBuffer dictionaries, IntBuffer valueOffsets, IntBuffer[] valueIds, int numRecords) {
+            this.dictionaries = dictionaries;
+            this.valueOffsets = valueOffsets;
+            this.valueIds = valueIds;
+            this.numRecords = numRecords;
+            this.values = new String[valueOffsets.limit()];
+        }
+
+        @Override
+        public int size() {
+            return this.numRecords;
+        }
+
+        @Override
+        public int cardinality() {
+            return this.values.length;
+        }
+
+        @Override
+        public String getValue(int valueId) {
+            String value = this.values[valueId];
+            if (value == null) {
+                ByteBuffer buffer = this.dictionaries.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(this.valueOffsets.get(valueId));
+                value = getString(buffer);
+                this.values[valueId] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public int getValueId(int recordIndex) {
+            return this.valueIds[recordIndex / CHUNK_LENGTH].get(recordIndex % CHUNK_LENGTH);
+        }
+
+        @Override
+        public String[] getDictionary() {
+            String[] dictionary = new String[this.values.length];
+            for (int i = 0; i < dictionary.length; i++)
+                dictionary[i] = this.getValue(i);
+            return dictionary;
+        }
+
+        @Override
+        public int[] getValueIds() {
+            int[] ids = new int[this.numRecords];
+            for (int i = 0; i < this.valueIds.length; i++)
+                this.valueIds[i].duplicate().get(ids, i * CHUNK_LENGTH, this.valueIds[i].limit());
+            return ids;
+        }
+    }
+
+    /**
+     * Checks whether the provided file is a snapshot file by its extension.
+     * @param filePath The path of the file.
+     * @return true if the file has the snapshot file extension.
+     */
+    public static boolean isSnapshot(Path filePath) {
+        return filePath.getFileName().toString().endsWith(FILE_EXTENSION);
+    }
+
+    private static void putString(ByteBuffer buffer, FileChannel channel, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(buffer, channel, Integer.BYTES);
+        buffer.putInt(bytes.length);
+        for (int i = 0; i < bytes.length; ) {
+            ensureCapacity(buffer, channel, 1);
+            int length = Math.min(buffer.remaining(), bytes.length - i);
+            buffer.put(bytes, i, length);
+            i += length;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putInts(ByteBuffer buffer, FileChannel channel, int[] values) throws IOException {
+        for (int i = 0; i < values.length; ) {
+            ensureCapacity(buffer, channel, Integer.BYTES);
+            IntBuffer intBuffer = buffer.asIntBuffer();
+            int length = Math.min(intBuffer.remaining(), values.length - i);
+            intBuffer.put(values, i, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            i += length;
+        }
+    }
+
+    private static void align(ByteBuffer buffer, FileChannel channel) throws IOException {
+        ensureCapacity(buffer, channel, Integer.BYTES);
+        while ((channel.position() + buffer.position()) % Integer.BYTES != 0)
+            buffer.put((byte) 0);
+    }
+
+    private static void ensureCapacity(ByteBuffer buffer, FileChannel channel, int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes)
+            flush(buffer, channel);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -1,9 +1,12 @@
 package de.di.data_profiling;
 
+import de.di.ColumnarRelation;
 import de.di.Relation;
+import de.di.RelationReader;
 import de.di.data_profiling.structures.IND;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -18,14 +21,71 @@ public class INDProfiler {
      * @return The list of all discovered non-trivial INDs.
      */
     public List<IND> profile(List<Relation> relations, boolean discoverNary) {
-        List<IND> inclusionDependencies = new ArrayList<>();
-
         // Precompute sets of values per column for each relation (including nulls)
         Map<Relation, List<Set<String>>> relationValueSets = new HashMap<>();
         for (Relation rel : relations) {
-            String[][] columns = rel.getColumns();
+            String[][] columns = new String[rel.getAttributes().length][];
+            for (int i = 0; i < columns.length; i++)
+                columns[i] = rel.getColumn(i);
             relationValueSets.put(rel, toColumnSets(columns));
         }
+        return this.profile(relations, relationValueSets, discoverNary);
+    }
+
+    /**
+     * Discovers all non-trivial unary inclusion dependencies in the provided columnar relations. The inclusion checks
+     * merge the sorted column dictionaries, so no value sets need to be built.
+     * @param relations The list of columnar relations to profile for inclusion dependencies.
+     * @param discoverNary Whether to discover n-ary INDs; currently only unary INDs are supported.
+     * @return The list of all discovered non-trivial INDs; these refer to the relations of the columnar relations.
+     */
+    public List<IND> profileColumnar(List<ColumnarRelation> relations, boolean discoverNary) {
+        if (discoverNary) {
+            throw new UnsupportedOperationException("N-ary IND discovery is not supported.");
+        }
+
+        List<IND> inclusionDependencies = new ArrayList<>();
+        for (ColumnarRelation r : relations) {
+            for (ColumnarRelation s : relations) {
+                for (int i = 0; i < r.getColumns().length; i++) {
+                    for (int j = 0; j < s.getColumns().length; j++) {
+                        // skip trivial same-column reflexive
+                        if (r.equals(s) && i == j) continue;
+                        if (s.getColumn(j).containsAll(r.getColumn(i))) {
+                            inclusionDependencies.add(new IND(r.getRelation(), i, s.getRelation(), j));
+                        }
+                    }
+                }
+            }
+        }
+        return inclusionDependencies;
+    }
+
+    /**
+     * Discovers all non-trivial unary inclusion dependencies while streaming over the records of the provided readers.
+     * Only the distinct values per column are kept in memory, not the records themselves; the readers are opened one
+     * at a time, read in batches of at most batchSize records and closed before the next one is opened, so that only
+     * one file, and for compressed files only one decompression thread, is open at a time.
+     * @param readers The suppliers that open the readers of the relations to profile for inclusion dependencies.
+     * @param batchSize The maximum number of records per reader that are held in memory at the same time.
+     * @param discoverNary Whether to discover n-ary INDs; currently only unary INDs are supported.
+     * @return The list of all discovered non-trivial INDs; these refer to schema-only relations of the readers.
+     */
+    public List<IND> profileStreams(List<Supplier<RelationReader>> readers, int batchSize, boolean discoverNary) {
+        List<Relation> relations = new ArrayList<>(readers.size());
+        Map<Relation, List<Set<String>>> relationValueSets = new HashMap<>();
+        for (Supplier<RelationReader> opener : readers) {
+            try (RelationReader reader = opener.get()) {
+                Relation rel = reader.toSchemaRelation();
+                relations.add(rel);
+                relationValueSets.put(rel, toColumnSets(reader, batchSize));
+            }
+        }
+        return this.profile(relations, relationValueSets, discoverNary);
+    }
+
+    private List<IND> profile(List<Relation> relations, Map<Relation, List<Set<String>>> relationValueSets, boolean discoverNary) {
+        List<IND> inclusionDependencies = new ArrayList<>();
 
         // Compare every ordered pair of relations (including same), but skip identical columns
         for (Relation r : relations) {
@@ -63,4 +123,21 @@ public class INDProfiler {
                 .map(col -> new HashSet<>(Arrays.asList(col)))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Streams the records of the reader into a list of Sets of Strings, one per column.
+     */
+    private List<Set<String>> toColumnSets(RelationReader reader, int batchSize) {
+        int numAttributes = reader.getAttributes().length;
+        List<Set<String>> sets = new ArrayList<>(numAttributes);
+        for (int i = 0; i < numAttributes; i++)
+            sets.add(new HashSet<>());
+
+        List<String[]> batch;
+        while (!(batch = reader.nextBatch(batchSize)).isEmpty())
+            for (String[] record : batch)
+                for (int i = 0; i < numAttributes; i++)
+                    sets.get(i).add(record[i]);
+        return sets;
+    }
 }
\ No newline at end of file
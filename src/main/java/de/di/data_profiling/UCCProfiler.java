@@ -1,6 +1,8 @@
 package de.di.data_profiling;
 
+import de.di.ColumnarRelation;
 import de.di.Relation;
+import de.di.RelationReader;
 import de.di.data_profiling.structures.AttributeList;
 import de.di.data_profiling.structures.PositionListIndex;
 import de.di.data_profiling.structures.UCC;
@@ -20,13 +22,59 @@ public class UCCProfiler {
      */
     public List<UCC> profile(Relation relation) {
         int numAttributes = relation.getAttributes().length;
+        List<PositionListIndex> unaryPLIs = new ArrayList<>(numAttributes);
+        for (int i = 0; i < numAttributes; i++)
+            unaryPLIs.add(new PositionListIndex(new AttributeList(i), relation.getColumn(i)));
+        return this.profile(relation, unaryPLIs);
+    }
+
+    /**
+     * Discovers all minimal, non-trivial unique column combinations in the provided columnar relation. The unary PLIs
+     * are built directly from the dictionary-encoded value ids.
+     * @param relation The columnar relation to profile for UCCs.
+     * @return The list of all minimal, non-trivial UCCs; these refer to the relation of the columnar relation.
+     */
+    public List<UCC> profile(ColumnarRelation relation) {
+        int numAttributes = relation.getAttributes().length;
+        List<PositionListIndex> unaryPLIs = new ArrayList<>(numAttributes);
+        for (int i = 0; i < numAttributes; i++)
+            unaryPLIs.add(new PositionListIndex(new AttributeList(i), relation.getColumn(i)));
+        return this.profile(relation.getRelation(), unaryPLIs);
+    }
+
+    /**
+     * Discovers all minimal, non-trivial unique column combinations while streaming over the records of the provided
+     * reader. Only the unary PLIs are kept in memory, not the records themselves; the reader is read in batches of at
+     * most batchSize records.
+     * @param reader The reader that streams the relation to profile for UCCs.
+     * @param batchSize The maximum number of records that are held in memory at the same time.
+     * @return The list of all minimal, non-trivial UCCs; these refer to a schema-only relation of the reader.
+     */
+    public List<UCC> profile(RelationReader reader, int batchSize) {
+        int numAttributes = reader.getAttributes().length;
+        PositionListIndex.Builder[] builders = new PositionListIndex.Builder[numAttributes];
+        for (int i = 0; i < numAttributes; i++)
+            builders[i] = new PositionListIndex.Builder(new AttributeList(i));
+
+        List<String[]> batch;
+        while (!(batch = reader.nextBatch(batchSize)).isEmpty())
+            for (String[] record : batch)
+                for (int i = 0; i < numAttributes; i++)
+                    builders[i].add(record[i]);
+
+        List<PositionListIndex> unaryPLIs = new ArrayList<>(numAttributes);
+        for (PositionListIndex.Builder builder : builders)
+            unaryPLIs.add(builder.build());
+        return this.profile(reader.toSchemaRelation(), unaryPLIs);
+    }
+
+    private List<UCC> profile(Relation relation, List<PositionListIndex> unaryPLIs) {
         Set<UCC> uniqueSet = new LinkedHashSet<>();
         List<PositionListIndex> nonUniquePLIs = new ArrayList<>();
 
         // 1. Compute unary UCCs
-        for (int i = 0; i < numAttributes; i++) {
-            AttributeList al = new AttributeList(i);
-            PositionListIndex pli = new PositionListIndex(al, relation.getColumns()[i]);
+        for (PositionListIndex pli : unaryPLIs) {
+            AttributeList al = pli.getAttributes();
             if (pli.isUnique()) {
                 uniqueSet.add(new UCC(relation, al));
             } else {
@@ -1,5 +1,6 @@
 package de.di.data_profiling.structures;
 
+import de.di.EncodedColumn;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -23,12 +24,42 @@ public class PositionListIndex {
         this.invertedClusters = this.calculateInverted(this.clusters, values.length);
     }
 
+    public PositionListIndex(final AttributeList attributes, final EncodedColumn column) {
+        this.attributes = attributes;
+        this.clusters = this.calculateClusters(column);
+        this.invertedClusters = this.calculateInverted(this.clusters, column.size());
+    }
+
     public PositionListIndex(final AttributeList attributes, final List<IntArrayList> clusters, int relationLength) {
         this.attributes = attributes;
         this.clusters = clusters;
         this.invertedClusters = this.calculateInverted(this.clusters, relationLength);
     }
 
+    /**
+     * Incrementally builds the PLI of a single attribute from a stream of values, such that the records of the
+     * relation need not be materialized as a column.
+     */
+    public static class Builder {
+
+        private final AttributeList attributes;
+        private final Map<String, IntArrayList> invertedIndex = new HashMap<>();
+        private int relationLength = 0;
+
+        public Builder(final AttributeList attributes) {
+            this.attributes = attributes;
+        }
+
+        public void add(final String value) {
+            this.invertedIndex.computeIfAbsent(value, k -> new IntArrayList()).add(this.relationLength++);
+        }
+
+        public PositionListIndex build() {
+            List<IntArrayList> clusters = this.invertedIndex.values().stream().filter(cluster -> cluster.size() > 1).collect(Collectors.toList());
+            return new PositionListIndex(this.attributes, clusters, this.relationLength);
+        }
+    }
+
     private List<IntArrayList> calculateClusters(final String[] values) {
         Map<String, IntArrayList> invertedIndex = new HashMap<>(values.length);
         for (int recordIndex = 0; recordIndex < values.length; recordIndex++) {
@@ -38,6 +69,28 @@ public class PositionListIndex {
         return invertedIndex.values().stream().filter(cluster -> cluster.size() > 1).collect(Collectors.toList());
     }
 
+    private List<IntArrayList> calculateClusters(final EncodedColumn column) {
+        // The value ids are dense, so clusters can be collected by id in arrays instead of hashing the values
+        int[] valueIds = column.getValueIds();
+        int[] counts = new int[column.cardinality()];
+        for (int valueId : valueIds)
+            counts[valueId]++;
+
+        IntArrayList[] clustersById = new IntArrayList[counts.length];
+        for (int valueId = 0; valueId < counts.length; valueId++)
+            if (counts[valueId] > 1)
+                clustersById[valueId] = new IntArrayList(counts[valueId]);
+        for (int recordIndex = 0; recordIndex < valueIds.length; recordIndex++)
+            if (clustersById[valueIds[recordIndex]] != null)
+                clustersById[valueIds[recordIndex]].add(recordIndex);
+
+        List<IntArrayList> clusters = new ArrayList<>();
+        for (IntArrayList cluster : clustersById)
+            if (cluster != null)
+                clusters.add(cluster);
+        return clusters;
+    }
+
     private int[] calculateInverted(List<IntArrayList> clusters, int relationLength) {
         int[] invertedClusters = new int[relationLength];
         Arrays.fill(invertedClusters, -1);
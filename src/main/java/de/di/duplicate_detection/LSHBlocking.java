@@ -0,0 +1,79 @@
+package de.di.duplicate_detection;
+
+import de.di.Relation;
+import de.di.duplicate_detection.structures.Duplicate;
+import de.di.similarity_measures.LocalitySensitiveHashing;
+import de.di.similarity_measures.helper.BandedLSHIndex;
+import de.di.similarity_measures.structures.SimilarPair;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LSHBlocking is a blocking alternative to the Sorted Neighborhood Method for near-duplicate detection in large
+ * relations. The blocking attributes of every record are concatenated into one value, which is signed once with the
+ * MinHash of a LocalitySensitiveHashing instance; a BandedLSHIndex then buckets the signatures band by band, so that
+ * only records that agree in at least one band are compared with the RecordComparator. Unlike the sorted windows,
+ * which miss duplicates that differ in the first characters of their sorting key, the candidates are found by token
+ * overlap and their number grows with the number of similar records rather than with the window size.
+ */
+@Getter
+public class LSHBlocking {
+
+    // The LSH instance whose MinHash signs the blocking values.
+    private final LocalitySensitiveHashing localitySensitiveHashing;
+
+    // The index that finds the candidate pairs among the signatures.
+    private final BandedLSHIndex index;
+
+    public LSHBlocking(LocalitySensitiveHashing localitySensitiveHashing, BandedLSHIndex index) {
+        this.localitySensitiveHashing = localitySensitiveHashing;
+        this.index = index;
+    }
+
+    public LSHBlocking(LocalitySensitiveHashing localitySensitiveHashing, double threshold) {
+        this(localitySensitiveHashing, BandedLSHIndex.forThreshold(threshold, localitySensitiveHashing.getSignatureLength()));
+    }
+
+    /**
+     * Finds the candidate pairs of the relation, i.e., the pairs of records whose blocking values likely have a
+     * Jaccard similarity above the threshold of the index.
+     * @param relation The relation, in which duplicates should be detected.
+     * @param blockingKeys The attribute indexes whose values are concatenated into the blocking value of a record.
+     * @return The candidate pairs with their estimated Jaccard similarities, sorted by their record indexes.
+     */
+    public List<SimilarPair> candidates(Relation relation, int[] blockingKeys) {
+        String[][] records = relation.getRecords();
+        String[] values = new String[records.length];
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < records.length; i++) {
+            value.setLength(0);
+            for (int key : blockingKeys)
+                value.append(records[i][key]).append(' ');
+            values[i] = value.toString();
+        }
+        return this.index.candidatePairs(this.localitySensitiveHashing.signAll(values));
+    }
+
+    /**
+     * Discovers all duplicates among the candidate pairs of the relation. A candidate pair is classified as a
+     * duplicate and returned as a Duplicate object, if the similarity of the two records w.r.t. the provided
+     * recordComparator characterizes a duplicate.
+     * @param relation The relation, in which duplicates should be detected.
+     * @param blockingKeys The attribute indexes whose values are concatenated into the blocking value of a record.
+     * @param recordComparator The record comparator that verifies the candidate pairs.
+     * @return The discovered duplicate pairs.
+     */
+    public Set<Duplicate> detectDuplicates(Relation relation, int[] blockingKeys, RecordComparator recordComparator) {
+        Set<Duplicate> duplicates = new HashSet<>();
+        String[][] records = relation.getRecords();
+        for (SimilarPair candidate : this.candidates(relation, blockingKeys)) {
+            double similarity = recordComparator.compare(records[candidate.getIndex1()], records[candidate.getIndex2()]);
+            if (recordComparator.isDuplicate(similarity))
+                duplicates.add(new Duplicate(candidate.getIndex1(), candidate.getIndex2(), similarity, relation));
+        }
+        return duplicates;
+    }
+}
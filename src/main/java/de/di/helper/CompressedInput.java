@@ -0,0 +1,93 @@
+package de.di.helper;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CompressedInput recognizes compressed files by their extension and opens them as streams of decompressed bytes.
+ * The decompression runs on a separate thread, so that it is pipelined with the parsing of the decompressed data.
+ * Supported are gzip (".gz") and zstd (".zst") compressed files.
+ */
+public class CompressedInput {
+
+    public enum Codec {
+        GZIP(".gz"), ZSTD(".zst");
+
+        // The file extension of files that are compressed with this codec.
+        private final String extension;
+
+        Codec(String extension) {
+            this.extension = extension;
+        }
+
+        InputStream decompress(InputStream input) throws IOException {
+            switch (this) {
+                case GZIP:
+                    return new GZIPInputStream(input, 1 << 16);
+                case ZSTD:
+                    return new ZstdInputStream(input);
+                default:
+                    throw new AssertionError();
+            }
+        }
+    }
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Determines the codec of the provided file by its extension.
+     * @param filePath The path of the file.
+     * @return The codec of the file or null if the file is not compressed.
+     */
+    public static Codec codecOf(Path filePath) {
+        String fileName = filePath.getFileName().toString();
+        for (Codec codec : Codec.values())
+            if (fileName.endsWith(codec.extension))
+                return codec;
+        return null;
+    }
+
+    /**
+     * Checks whether the provided file is compressed, i.e., has the extension of a supported codec.
+     * @param filePath The path of the file.
+     * @return true if the file is compressed.
+     */
+    public static boolean isCompressed(Path filePath) {
+        return codecOf(filePath) != null;
+    }
+
+    /**
+     * Opens the provided compressed file as stream of decompressed bytes that are decompressed on a separate thread.
+     * @param filePath The path of the compressed file.
+     * @return The stream of decompressed bytes.
+     */
+    public static InputStream open(Path filePath) {
+        Codec codec = codecOf(filePath);
+        if (codec == null)
+            throw new IllegalArgumentException("Not a compressed file: " + filePath);
+        try {
+            InputStream input = new BufferedInputStream(Files.newInputStream(filePath), 1 << 16);
+            try {
+                return new PipelinedInputStream(codec.decompress(input), "decompress-" + filePath.getFileName());
+            } catch (Throwable t) {
+                // The decompressor reads the header eagerly and fails on files of another format, and the
+                // decompression thread may fail to start; the file must not stay open in either case
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    t.addSuppressed(e);
+                }
+                throw t;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package de.di.helper;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A FieldDictionary translates the raw bytes of CSV fields into Strings and remembers the translations, such that a
+ * repeated field value is decoded only once and all its occurrences share the same String instance. Long fields and
+ * fields that arrive after the dictionary is full are decoded without being remembered, which bounds the memory of the
+ * dictionary for high-cardinality columns. If a column turns out to be mostly unique, the dictionary switches itself
+ * off entirely, because remembering values that never repeat only costs time.
+ */
+public class FieldDictionary {
+
+    // Fields longer than this are very likely unique and, therefore, not worth remembering.
+    private static final int MAX_FIELD_LENGTH = 64;
+
+    // The number of lookups after which the dictionary decides whether the column repeats its values often enough.
+    private static final int SAMPLE_SIZE = 1024;
+
+    private final Charset charset;
+    private final int maxSize;
+
+    // Open-addressing hash table of the remembered fields; keys[i] == null marks an empty slot.
+    private byte[][] keys = new byte[16][];
+    private String[] values = new String[16];
+    private int[] hashes = new int[16];
+    private int size = 0;
+
+    // The number of lookups so far and whether the dictionary still remembers values.
+    private int lookups = 0;
+    private boolean enabled = true;
+
+    public FieldDictionary(Charset charset, int maxSize) {
+        this.charset = charset;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the String for the field bytes buffer[0..length).
+     * @param buffer The buffer that holds the field bytes.
+     * @param length The number of field bytes.
+     * @return The decoded field; the same instance for equal field bytes as long as the field is remembered.
+     */
+    public String lookup(byte[] buffer, int length) {
+        // Values of a column in which more than half of the sampled fields are distinct are very likely unique
+        if (this.enabled && ++this.lookups == SAMPLE_SIZE && this.size * 2 > SAMPLE_SIZE)
+            this.disable();
+        if (!this.enabled || length > MAX_FIELD_LENGTH)
+            return new String(buffer, 0, length, this.charset);
+
+        int hash = hash(buffer, length);
+        int mask = this.keys.length - 1;
+        int slot = hash & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash && equals(this.keys[slot], buffer, length))
+                return this.values[slot];
+            slot = (slot + 1) & mask;
+        }
+
+        String value = new String(buffer, 0, length, this.charset);
+        if (this.size < this.maxSize) {
+            this.keys[slot] = Arrays.copyOf(buffer, length);
+            this.values[slot] = value;
+            this.hashes[slot] = hash;
+            if (++this.size * 2 > this.keys.length)
+                this.grow();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of remembered field values.
+     * @return The number of remembered field values.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private void disable() {
+        this.enabled = false;
+        this.keys = new byte[0][];
+        this.values = new String[0];
+        this.hashes = new int[0];
+        this.size = 0;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = this.keys;
+        String[] oldValues = this.values;
+        int[] oldHashes = this.hashes;
+
+        this.keys = new byte[oldKeys.length * 2][];
+        this.values = new String[oldKeys.length * 2];
+        this.hashes = new int[oldKeys.length * 2];
+        int mask = this.keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = oldHashes[i] & mask;
+            while (this.keys[slot] != null)
+                slot = (slot + 1) & mask;
+            this.keys[slot] = oldKeys[i];
+            this.values[slot] = oldValues[i];
+            this.hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private static int hash(byte[] buffer, int length) {
+        int hash = length;
+        for (int i = 0; i < length; i++)
+            hash = 31 * hash + buffer[i];
+        // Murmur3 finalizer, because the table index takes only the low bits of the hash
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] buffer, int length) {
+        if (key.length != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (key[i] != buffer[i])
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package de.di.helper;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An InterningPool deduplicates the values of records column by column, such that all equal values of a column share
+ * one String instance. This shrinks relations with low-cardinality columns considerably and makes the hashing of
+ * their values cheaper, because a String caches its hash code. Like the FieldDictionary, a column pool switches
+ * itself off if the column turns out to be mostly unique.
+ */
+@Getter
+public class InterningPool {
+
+    // The number of values after which a column pool decides whether the column repeats its values often enough.
+    private static final int SAMPLE_SIZE = 1024;
+
+    // The pools of all columns seen so far; a null entry marks a column that is not interned anymore.
+    private final List<Map<String, String>> pools = new ArrayList<>();
+
+    // The number of values that each column pool has seen.
+    private final IntArrayList lookups = new IntArrayList();
+
+    // The number of values that were replaced by an equal, already pooled instance.
+    private long numInternedValues = 0;
+
+    // The estimated number of heap bytes that the replaced instances occupied.
+    private long savedBytes = 0;
+
+    /**
+     * Replaces every value of the provided record by the pooled instance of its column, if the pool has one.
+     * @param record The record whose values should be interned; it is modified in place.
+     */
+    public void intern(String[] record) {
+        this.intern(record, null);
+    }
+
+    /**
+     * Interns the records of a chunk whose values a pool of the chunk has interned already, e.g., while the chunks of a
+     * file were parsed in parallel, so that equal values of all chunks share one instance; the statistics of the chunk
+     * pool are added to this pool. A replaced instance is counted as saved once, however many records refer to it.
+     * @param records The records of the chunk; they are modified in place.
+     * @param chunkPool The pool that interned the records of the chunk.
+     */
+    void merge(List<String[]> records, InterningPool chunkPool) {
+        this.numInternedValues += chunkPool.numInternedValues;
+        this.savedBytes += chunkPool.savedBytes;
+        Set<String> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String[] record : records)
+            this.intern(record, replaced);
+    }
+
+    private void intern(String[] record, Set<String> replaced) {
+        while (this.pools.size() < record.length) {
+            this.pools.add(new HashMap<>());
+            this.lookups.add(0);
+        }
+
+        for (int i = 0; i < record.length; i++) {
+            Map<String, String> pool = this.pools.get(i);
+            if (pool == null)
+                continue;
+
+            String value = record[i];
+            String pooled = pool.putIfAbsent(value, value);
+            if (pooled != null && pooled != value) {
+                record[i] = pooled;
+                this.numInternedValues++;
+                if (replaced == null || replaced.add(value))
+                    this.savedBytes += estimateSize(value);
+            }
+
+            // Values of a column in which more than half of the sampled values are distinct are very likely unique
+            int numLookups = this.lookups.getInt(i) + 1;
+            this.lookups.set(i, numLookups);
+            if (numLookups == SAMPLE_SIZE && pool.size() * 2 > SAMPLE_SIZE)
+                this.pools.set(i, null);
+        }
+    }
+
+    /**
+     * Estimates the heap size of a String on a 64 bit JVM with compressed references and compact strings, i.e., the
+     * String object plus its byte array, both aligned to 8 bytes.
+     * @param value The String to estimate.
+     * @return The estimated number of bytes.
+     */
+    static long estimateSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++)
+            latin1 = value.charAt(i) < 256;
+        long arraySize = 16 + (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + ((arraySize + 7) / 8) * 8;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("interned %d values, saving about %d bytes", this.numInternedValues, this.savedBytes);
+    }
+}
@@ -0,0 +1,311 @@
+package de.di.helper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A RecordParser that scans a memory-mapped file byte by byte instead of decoding it into lines of characters first.
+ * The parser is a byte-level port of the OpenCSV parsing rules used by OpenCSVRecordParser, which is possible because
+ * all special characters are ASCII and, therefore, never occur inside multi-byte characters of ASCII-compatible
+ * charsets such as UTF-8 or ISO-8859-1. Field bytes are decoded through one FieldDictionary per column, so repeated
+ * values are decoded only once and share the same String instance.
+ */
+public class MappedCSVParser implements RecordParser {
+
+    private static final byte QUOTE = '"';
+    private static final byte ESCAPE = '\\';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // OpenCSV treats quotes in the middle of an unquoted field as literal characters only after this line position.
+    private static final int BEGINNING_OF_LINE = 3;
+
+    // The maximum number of remembered values per column dictionary.
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    // The maximum size of a single mapped window of the file.
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final byte separator;
+    private final Charset charset;
+    private final boolean utf8;
+    private final long windowSize;
+
+    // The end of the parsed byte range, exclusive.
+    private final long end;
+
+    // The position of the next byte to parse.
+    private long position;
+
+    // The currently mapped window of the file.
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long windowLength = 0;
+
+    // The per-column dictionaries for the decoding of field bytes.
+    private final List<FieldDictionary> dictionaries = new ArrayList<>();
+
+    // The scratch buffer that collects the (unescaped) bytes of the current field.
+    private byte[] field = new byte[256];
+    private int fieldLength = 0;
+
+    // The fields of the current record.
+    private final List<String> tokens = new ArrayList<>();
+
+    // Parser state that, like in OpenCSV, survives the end of a line.
+    private boolean inField = false;
+
+    // Whether the current record is only skipped, i.e., its fields are not collected.
+    private boolean skipping = false;
+
+    public MappedCSVParser(Path filePath, char separator, Charset charset) {
+        this(filePath, separator, charset, 0, Long.MAX_VALUE, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a parser for the records in the byte range [start, end) of the provided file. The range must begin at
+     * the beginning of a record and end at the end of a record, because the parser cannot look beyond its range.
+     * @param filePath The path of the CSV file.
+     * @param separator The file separator character, which must be ASCII.
+     * @param charset The charset of the file, which must be UTF-8 or a single-byte charset.
+     * @param start The position of the first byte to parse.
+     * @param end The position after the last byte to parse; values beyond the file size are clipped.
+     */
+    public MappedCSVParser(Path filePath, char separator, Charset charset, long start, long end) {
+        this(filePath, separator, charset, start, end, MAX_WINDOW_SIZE);
+    }
+
+    MappedCSVParser(Path filePath, char separator, Charset charset, long windowSize) {
+        this(filePath, separator, charset, 0, Long.MAX_VALUE, windowSize);
+    }
+
+    private MappedCSVParser(Path filePath, char separator, Charset charset, long start, long end, long windowSize) {
+        if (separator >= 128 || separator == '"' || separator == '\\')
+            throw new IllegalArgumentException("The separator must be an ASCII character other than quote or escape.");
+        if (!charset.equals(StandardCharsets.UTF_8) && charset.newEncoder().maxBytesPerChar() > 1)
+            throw new IllegalArgumentException("The charset must be UTF-8 or a single-byte charset.");
+
+        try {
+            this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            this.end = Math.min(end, this.channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.separator = (byte) separator;
+        this.charset = charset;
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+        this.windowSize = Math.min(windowSize, MAX_WINDOW_SIZE);
+        this.position = start;
+    }
+
+    @Override
+    public String[] readNext() {
+        this.skipping = false;
+        if (!this.parseRecord(false))
+            return null;
+        return this.tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Moves the parser behind the next record without decoding its fields. Skipping follows the same quoting rules as
+     * parsing, which makes it a cheap way to find record boundaries in files with multi-line fields.
+     * @return True if a record was skipped and false if the input is exhausted.
+     */
+    public boolean skipRecord() {
+        this.skipping = true;
+        return this.parseRecord(false);
+    }
+
+    /**
+     * Moves the parser behind the record whose quoted field continues on the current line, i.e., skips as if the
+     * parser had reached the beginning of the current line inside quotes. Together with skipRecord(), this lets a
+     * scan follow every possible parser state from a line whose preceding lines are unknown.
+     * @param inField Whether the parser was in a field at the end of the previous line.
+     * @return True if the record was skipped and false if the input is exhausted.
+     */
+    boolean skipQuotedRecord(boolean inField) {
+        this.skipping = true;
+        this.inField = inField;
+        return this.parseRecord(true);
+    }
+
+    /**
+     * Moves the parser behind the next line terminator regardless of quotes.
+     */
+    void skipLine() {
+        while (!this.isLineEnd(this.position))
+            this.position++;
+        this.skipLineTerminator();
+    }
+
+    /**
+     * Returns the position of the next byte to parse, which is the beginning of a record between two calls of
+     * readNext() or skipRecord().
+     * @return The position of the next byte to parse.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    private boolean parseRecord(boolean inQuotes) {
+        if (this.position >= this.end)
+            return false;
+
+        this.tokens.clear();
+        this.fieldLength = 0;
+        int linePosition = 0; // the position of the current character in the line, counted in UTF-16 chars
+
+        while (true) {
+            if (this.isLineEnd(this.position)) {
+                this.skipLineTerminator();
+                if (inQuotes) {
+                    // A quoted field continues on the next line; OpenCSV fails on unterminated quotes at the end
+                    if (this.position >= this.end)
+                        throw new RuntimeException("Unterminated quoted field at end of file: " + this.fieldString());
+                    this.append(LF);
+                    linePosition = 0;
+                    continue;
+                }
+                this.inField = false;
+                this.addToken();
+                return true;
+            }
+
+            byte c = this.byteAt(this.position++);
+
+            if (c == ESCAPE) {
+                this.inField = true;
+                if (!this.isLineEnd(this.position)) {
+                    byte next = this.byteAt(this.position);
+                    if (next == QUOTE || next == ESCAPE || next == this.separator) {
+                        this.append(next);
+                        this.position++;
+                        linePosition++;
+                    }
+                }
+            } else if (c == QUOTE) {
+                if ((inQuotes || this.inField) && !this.isLineEnd(this.position) && this.byteAt(this.position) == QUOTE) {
+                    this.append(QUOTE);
+                    this.position++;
+                    linePosition++;
+                } else {
+                    inQuotes = !inQuotes;
+
+                    // The tricky case of an embedded quote in the middle of a field: a,bc"d"ef,g
+                    if (linePosition >= BEGINNING_OF_LINE
+                            && this.byteAt(this.position - 2) != this.separator
+                            && !this.isLineEnd(this.position)
+                            && this.byteAt(this.position) != this.separator)
+                        this.append(QUOTE);
+                }
+                this.inField = !this.inField;
+            } else if (c == this.separator && !inQuotes) {
+                this.addToken();
+                this.inField = false;
+            } else {
+                this.append(c);
+                this.inField = true;
+            }
+            linePosition += this.charWidth(c);
+        }
+    }
+
+    /**
+     * Returns the number of values that are remembered in the column dictionaries, i.e., the number of distinct
+     * values that were decoded only once.
+     * @return The number of remembered values over all columns.
+     */
+    public int dictionarySize() {
+        return this.dictionaries.stream().mapToInt(FieldDictionary::size).sum();
+    }
+
+    /**
+     * Returns by how many UTF-16 chars the line position advances with the provided byte. Positions are counted in
+     * chars rather than bytes, because OpenCSV checks them on the decoded line.
+     * @param c The byte to advance over.
+     * @return The number of chars that the byte completes.
+     */
+    private int charWidth(byte c) {
+        if (!this.utf8 || c >= 0)
+            return 1;
+        if ((c & 0xC0) == 0x80)
+            return 0;  // continuation byte
+        return ((c & 0xF8) == 0xF0) ? 2 : 1;  // 4-byte sequences decode into surrogate pairs
+    }
+
+    private boolean isLineEnd(long position) {
+        if (position >= this.end)
+            return true;
+        byte c = this.byteAt(position);
+        return c == LF || c == CR;
+    }
+
+    private void skipLineTerminator() {
+        if (this.position >= this.end)
+            return;
+        if (this.byteAt(this.position++) == CR && this.position < this.end && this.byteAt(this.position) == LF)
+            this.position++;
+    }
+
+    private byte byteAt(long position) {
+        long offset = position - this.windowStart;
+        if (offset < 0 || offset >= this.windowLength) {
+            this.map(position);
+            offset = position - this.windowStart;
+        }
+        return this.window.get((int) offset);
+    }
+
+    private void map(long position) {
+        // Keep a few bytes before the requested position, because the parser looks back up to two bytes
+        this.windowStart = Math.max(0, position - 16);
+        this.windowLength = Math.min(this.windowSize, this.end - this.windowStart);
+        try {
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowStart, this.windowLength);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void append(byte c) {
+        if (this.skipping)
+            return;
+        if (this.fieldLength == this.field.length)
+            this.field = Arrays.copyOf(this.field, this.field.length * 2);
+        this.field[this.fieldLength++] = c;
+    }
+
+    private void addToken() {
+        if (this.skipping) {
+            this.fieldLength = 0;
+            return;
+        }
+        int column = this.tokens.size();
+        if (column == this.dictionaries.size())
+            this.dictionaries.add(new FieldDictionary(this.charset, MAX_DICTIONARY_SIZE));
+        this.tokens.add(this.fieldLength == 0 ? "" : this.dictionaries.get(column).lookup(this.field, this.fieldLength));
+        this.fieldLength = 0;
+    }
+
+    private String fieldString() {
+        return new String(this.field, 0, this.fieldLength, this.charset);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
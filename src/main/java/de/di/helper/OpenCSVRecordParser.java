@@ -0,0 +1,54 @@
+package de.di.helper;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A RecordParser that reads the records with OpenCSV from a character stream.
+ */
+public class OpenCSVRecordParser implements RecordParser {
+
+    private final CSVReader reader;
+
+    public OpenCSVRecordParser(Reader input, char separator) {
+        CSVParser parser = new CSVParserBuilder()
+                .withSeparator(separator)
+                .withQuoteChar('"')
+                .withEscapeChar('\\')
+                .withStrictQuotes(false)
+                .withIgnoreLeadingWhiteSpace(false)
+                .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
+                .build();
+        this.reader = new CSVReaderBuilder(input).withCSVParser(parser).build();
+    }
+
+    @Override
+    public String[] readNext() {
+        try {
+            String[] record = this.reader.readNext();
+            if (record != null)
+                for (int i = 0; i < record.length; i++)
+                    if (record[i] == null)
+                        record[i] = "";
+            return record;
+        } catch (CsvValidationException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package de.di.helper;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A ParallelCSVParser parses a single CSV file with multiple threads. It first splits the file into byte ranges that
+ * begin and end at record boundaries, then parses the ranges concurrently with MappedCSVParsers on a fork-join pool, and
+ * finally stitches the records of all ranges back together in file order. Record boundaries cannot be found by
+ * searching for line breaks, because quoted fields may span multiple lines. Hence, each split point is resynchronized
+ * in parallel by a bounded scan that follows every possible parser state from the next line until all of them agree
+ * on a record boundary; if they do not agree, the next line is speculated to begin a record. Speculation is validated
+ * while stitching: a range parses without error up to its end exactly if its end is a record boundary, so a range that
+ * fails is parsed again together with its successor. Values can be interned while the chunks are parsed, so that the
+ * duplicate instances of a chunk become garbage before the whole file is parsed.
+ */
+public class ParallelCSVParser {
+
+    // Files or ranges smaller than this are not worth being split any further.
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    // The number of chunks per thread, which balances the load if some chunks parse slower than others.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // The number of bytes after a split point within which the resynchronization must decide on a record boundary.
+    private static final long MAX_SCAN_LENGTH = 1 << 16;
+
+    private final Path filePath;
+    private final char separator;
+    private final Charset charset;
+    private final int numThreads;
+    private final long minChunkSize;
+
+    public ParallelCSVParser(Path filePath, char separator, Charset charset, int numThreads) {
+        this(filePath, separator, charset, numThreads, MIN_CHUNK_SIZE);
+    }
+
+    ParallelCSVParser(Path filePath, char separator, Charset charset, int numThreads, long minChunkSize) {
+        this.filePath = filePath;
+        this.separator = separator;
+        this.charset = charset;
+        this.numThreads = Math.max(1, numThreads);
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * Parses all records of the file in the order in which they appear in the file.
+     * @param skipHeader Whether the first record of the file should be skipped.
+     * @return All (remaining) records of the file.
+     */
+    public List<String[]> parseAll(boolean skipHeader) {
+        return this.parseAll(skipHeader, null);
+    }
+
+    /**
+     * Parses all records of the file in the order in which they appear in the file and interns their values while
+     * they are parsed. Every chunk is interned with a pool of its own on the thread that parses it; the chunks are
+     * merged into the provided pool while they are stitched together, so that equal values of all chunks share one
+     * instance in the end.
+     * @param skipHeader Whether the first record of the file should be skipped.
+     * @param interningPool The pool into which the interned chunks are merged; null to not intern.
+     * @return All (remaining) records of the file.
+     */
+    public List<String[]> parseAll(boolean skipHeader, InterningPool interningPool) {
+        boolean interning = interningPool != null;
+        ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+        try {
+            List<Long> boundaries = this.split(skipHeader, pool);
+            if (boundaries.size() == 2)
+                return this.parseChunk(boundaries.get(0), boundaries.get(1), interning).accept(interningPool);
+
+            List<Future<Chunk>> chunks = new ArrayList<>(boundaries.size() - 1);
+            for (int i = 0; i < boundaries.size() - 1; i++) {
+                long start = boundaries.get(i);
+                long end = boundaries.get(i + 1);
+                chunks.add(pool.submit(() -> this.parseChunk(start, end, interning)));
+            }
+
+            // The first chunk begins at a record boundary; every chunk that parses without error validates the
+            // beginning of its successor, whereas a failed chunk is parsed again up to the following boundary
+            List<List<String[]>> parsedChunks = new ArrayList<>(chunks.size());
+            int numRecords = 0;
+            for (int first = 0, last; first < chunks.size(); first = last + 1) {
+                last = first;
+                Chunk parsedChunk;
+                RuntimeException failure = null;
+                try {
+                    parsedChunk = get(chunks.get(first));
+                } catch (RuntimeException e) {
+                    parsedChunk = null;
+                    failure = e;
+                }
+                while (parsedChunk == null) {
+                    if (last == chunks.size() - 1)
+                        throw failure;  // the chunk ends at the end of the file, so the file itself is malformed
+                    last++;
+                    try {
+                        parsedChunk = this.parseChunk(boundaries.get(first), boundaries.get(last + 1), interning);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                // Only the accepted chunks are merged into the interning pool, not the misspeculated ones
+                parsedChunks.add(parsedChunk.accept(interningPool));
+                numRecords += parsedChunk.records.size();
+            }
+
+            List<String[]> records = new ArrayList<>(numRecords);
+            for (List<String[]> parsedChunk : parsedChunks)
+                records.addAll(parsedChunk);
+            return records;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges of roughly equal size whose boundaries are resynchronized in parallel. The
+     * first range begins at a record boundary; the other boundaries are record boundaries unless their scan could
+     * not decide and the speculation was wrong.
+     * @param skipHeader Whether the first record of the file should be excluded from all ranges.
+     * @param pool The pool that runs the resynchronization scans.
+     * @return The ascending range boundaries, i.e., the first range is [boundaries[0], boundaries[1]) and so on.
+     */
+    List<Long> split(boolean skipHeader, ForkJoinPool pool) {
+        long size;
+        long start;
+        try (MappedCSVParser scanner = new MappedCSVParser(this.filePath, this.separator, this.charset)) {
+            size = Files.size(this.filePath);
+            if (skipHeader)
+                scanner.skipRecord();
+            start = scanner.getPosition();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        int numChunks = (int) Math.max(1, Math.min((long) this.numThreads * CHUNKS_PER_THREAD, (size - start) / this.minChunkSize));
+        List<Future<Long>> scans = new ArrayList<>(numChunks - 1);
+        for (int i = 1; i < numChunks; i++) {
+            long target = start + (size - start) * i / numChunks;
+            scans.add(pool.submit(() -> this.resync(target)));
+        }
+
+        List<Long> boundaries = new ArrayList<>(numChunks + 1);
+        boundaries.add(start);
+        for (Future<Long> scan : scans) {
+            long boundary = get(scan);
+            if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size)
+                boundaries.add(boundary);
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    /**
+     * Finds a record boundary after the provided position. The parser state at the beginning of the next line is
+     * unknown: the line begins a record or continues a quoted field, in which the parser may or may not be in a field.
+     * The scan skips records under all three hypotheses, always advancing the one that lags behind, until all of them
+     * reach the same record boundary, which is then a boundary for the true state as well. Hypotheses that fail are
+     * impossible in a well-formed file and dropped.
+     * @param target The position after which the boundary is searched.
+     * @return The agreed record boundary or, if the hypotheses do not agree within MAX_SCAN_LENGTH bytes, e.g., in
+     * files without quotes, the beginning of the next line as speculative boundary.
+     */
+    long resync(long target) {
+        long lineStart;
+        try (MappedCSVParser scanner = new MappedCSVParser(this.filePath, this.separator, this.charset, target, Long.MAX_VALUE)) {
+            scanner.skipLine();
+            lineStart = scanner.getPosition();
+        }
+
+        MappedCSVParser[] hypotheses = new MappedCSVParser[3];
+        long[] positions = new long[hypotheses.length];
+        try {
+            for (int i = 0; i < hypotheses.length; i++) {
+                hypotheses[i] = new MappedCSVParser(this.filePath, this.separator, this.charset, lineStart, Long.MAX_VALUE);
+                positions[i] = (i == 0) ? lineStart : skip(hypotheses[i], i == 1 ? Boolean.TRUE : Boolean.FALSE);
+            }
+            while (true) {
+                int lagging = -1;
+                long maxPosition = -1;
+                for (int i = 0; i < hypotheses.length; i++) {
+                    if (positions[i] < 0)
+                        continue;
+                    if (lagging < 0 || positions[i] < positions[lagging])
+                        lagging = i;
+                    maxPosition = Math.max(maxPosition, positions[i]);
+                }
+                if (lagging < 0 || positions[lagging] - lineStart > MAX_SCAN_LENGTH)
+                    return lineStart;
+                if (positions[lagging] == maxPosition)
+                    return maxPosition;
+                positions[lagging] = skip(hypotheses[lagging], null);
+            }
+        } finally {
+            for (MappedCSVParser hypothesis : hypotheses)
+                if (hypothesis != null)
+                    hypothesis.close();
+        }
+    }
+
+    /**
+     * Skips the next record of the provided parser.
+     * @param parser The parser of a resynchronization hypothesis.
+     * @param quotedInField null to skip a complete record; otherwise, the rest of a quoted record is skipped with
+     * the given in-field state.
+     * @return The position after the skipped record or -1 if the record is malformed.
+     */
+    private static long skip(MappedCSVParser parser, Boolean quotedInField) {
+        try {
+            if (quotedInField == null)
+                parser.skipRecord();
+            else
+                parser.skipQuotedRecord(quotedInField);
+            return parser.getPosition();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Chunk parseChunk(long start, long end, boolean interning) {
+        InterningPool interningPool = interning ? new InterningPool() : null;
+        List<String[]> records = new ArrayList<>();
+        try (MappedCSVParser parser = new MappedCSVParser(this.filePath, this.separator, this.charset, start, end)) {
+            String[] record;
+            while ((record = parser.readNext()) != null) {
+                if (interningPool != null)
+                    interningPool.intern(record);
+                records.add(record);
+            }
+        }
+        return new Chunk(records, interningPool);
+    }
+
+    /**
+     * The parsed records of a chunk and the pool that interned their values, if any.
+     */
+    private static class Chunk {
+
+        private final List<String[]> records;
+        private final InterningPool interningPool;
+
+        Chunk(List<String[]> records, InterningPool interningPool) {
+            this.records = records;
+            this.interningPool = interningPool;
+        }
+
+        /**
+         * Accepts the chunk as part of the file, i.e., merges its interned records into the pool of the file.
+         * @param filePool The interning pool of the file; null if not interning.
+         * @return The records of the chunk.
+         */
+        List<String[]> accept(InterningPool filePool) {
+            if (filePool != null)
+                filePool.merge(this.records, this.interningPool);
+            return this.records;
+        }
+    }
+}
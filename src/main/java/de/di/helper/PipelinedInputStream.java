@@ -0,0 +1,132 @@
+package de.di.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A PipelinedInputStream reads its source stream on a separate thread into a bounded queue of blocks, such that an
+ * expensive source, e.g., a decompressing stream, runs concurrently to the consumer of the data instead of
+ * alternating with it. The queue bounds the data that is read ahead; errors of the source, including unchecked
+ * ones, are re-thrown to the consumer as IOExceptions once it has read all blocks before the error.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    // The size of the blocks that are passed from the reading thread to the consumer.
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    // The maximum number of blocks that are read ahead.
+    private static final int QUEUE_CAPACITY = 16;
+
+    // The block that marks the end of the source stream.
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread reader;
+
+    // The error that ended the source stream; it is set before END is queued.
+    private volatile IOException error = null;
+
+    private volatile boolean closed = false;
+
+    // The block that is currently consumed and the position of the next byte in it.
+    private byte[] block = null;
+    private int blockLength = 0;
+    private int position = 0;
+
+    public PipelinedInputStream(InputStream source, String threadName) {
+        this.reader = new Thread(() -> this.readAll(source), threadName);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    private void readAll(InputStream source) {
+        try (source) {
+            while (!this.closed) {
+                byte[] buffer = new byte[BLOCK_SIZE];
+                int length = source.readNBytes(buffer, 0, BLOCK_SIZE);
+                if (length == 0)
+                    break;
+                // The last, partially filled block is trimmed, so that the consumer can use the array length
+                this.blocks.put((length == BLOCK_SIZE) ? buffer : Arrays.copyOf(buffer, length));
+                if (length < BLOCK_SIZE)
+                    break;
+            }
+        } catch (IOException e) {
+            this.error = e;
+        } catch (InterruptedException e) {
+            // Only close() interrupts the reader, so nobody waits for the end marker anymore
+        } catch (RuntimeException | Error e) {
+            // Decompressors report corrupt input with unchecked exceptions, e.g., aircompressor's
+            // MalformedInputException; the consumer must see them instead of waiting forever
+            this.error = new IOException("Failed to read the source stream", e);
+        } finally {
+            this.putEnd();
+        }
+    }
+
+    private void putEnd() {
+        if (this.closed)
+            return;
+        try {
+            this.blocks.put(END);
+        } catch (InterruptedException e) {
+            // Closed while waiting for space; nobody waits for the end marker anymore
+        }
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (this.block != END) {
+            try {
+                this.block = this.blocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for data", e);
+            }
+            this.blockLength = this.block.length;
+            this.position = 0;
+        }
+        if (this.block == END) {
+            if (this.error != null)
+                throw this.error;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (this.closed)
+            throw new IOException("Stream closed");
+        while (this.block == null || this.position == this.blockLength)
+            if (!this.nextBlock())
+                return -1;
+        return this.block[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (this.closed)
+            throw new IOException("Stream closed");
+        if (length == 0)
+            return 0;
+        while (this.block == null || this.position == this.blockLength)
+            if (!this.nextBlock())
+                return -1;
+        int available = Math.min(length, this.blockLength - this.position);
+        System.arraycopy(this.block, this.position, buffer, offset, available);
+        this.position += available;
+        return available;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        this.closed = true;
+        this.reader.interrupt();
+        this.blocks.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package de.di.helper;
+
+import java.io.Closeable;
+
+/**
+ * A RecordParser splits a CSV input into records. All implementations follow the same CSV dialect: '"' as quote
+ * character, '\' as escape character, no strict quotes, no trimming of leading white spaces, and empty fields are
+ * returned as empty strings.
+ */
+public interface RecordParser extends Closeable {
+
+    /**
+     * Parses the next record of the input.
+     * @return The fields of the next record or null if the input is exhausted.
+     */
+    String[] readNext();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,164 @@
+package de.di.helper;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A RowSample describes which records of a relation should be loaded if not all of them are needed: the first N
+ * records, a uniform reservoir sample of N records, or a uniform sample of a fraction of the records. Samples of the
+ * two random modes are reproducible for a given seed and keep the records in their original order. Samples are
+ * created with the validating factory methods or parse().
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RowSample {
+
+    public enum Mode {
+        FIRST, RESERVOIR, FRACTION
+    }
+
+    // The seed that is used if a sample specification does not define one.
+    public static final long DEFAULT_SEED = 42;
+
+    // The way the records are sampled.
+    private final Mode mode;
+
+    // The number of records to sample in the FIRST and RESERVOIR modes.
+    private final int numRows;
+
+    // The probability with which each record is sampled in the FRACTION mode.
+    private final double fraction;
+
+    // The seed of the random modes.
+    private final long seed;
+
+    public static RowSample first(int numRows) {
+        checkNumRows(numRows);
+        return new RowSample(Mode.FIRST, numRows, 0, DEFAULT_SEED);
+    }
+
+    public static RowSample reservoir(int numRows, long seed) {
+        checkNumRows(numRows);
+        return new RowSample(Mode.RESERVOIR, numRows, 0, seed);
+    }
+
+    public static RowSample fraction(double fraction, long seed) {
+        if (!(fraction >= 0 && fraction <= 1))
+            throw new IllegalArgumentException("The fraction must be in [0, 1], but is " + fraction + ".");
+        return new RowSample(Mode.FRACTION, 0, fraction, seed);
+    }
+
+    private static void checkNumRows(int numRows) {
+        if (numRows < 0)
+            throw new IllegalArgumentException("The number of rows must not be negative, but is " + numRows + ".");
+    }
+
+    /**
+     * Parses a sample specification of the form "first:N", "reservoir:N[:seed]" or "fraction:P[:seed]", e.g.,
+     * "reservoir:1000:7" for a sample of 1000 records with seed 7.
+     * @param specification The sample specification.
+     * @return The specified sample.
+     */
+    public static RowSample parse(String specification) {
+        String[] parts = specification.split(":");
+        try {
+            long seed = (parts.length > 2) ? Long.parseLong(parts[2]) : DEFAULT_SEED;
+            switch (parts[0].toLowerCase()) {
+                case "first":
+                    return first(Integer.parseInt(parts[1]));
+                case "reservoir":
+                    return reservoir(Integer.parseInt(parts[1]), seed);
+                case "fraction":
+                    return fraction(Double.parseDouble(parts[1]), seed);
+                default:
+                    break;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Fall through to the exception below
+        }
+        throw new IllegalArgumentException("Invalid sample specification \"" + specification + "\"; expected first:N, reservoir:N[:seed] or fraction:P[:seed].");
+    }
+
+    /**
+     * Draws the sample from the provided records. The FIRST mode stops consuming the records as soon as it has enough
+     * of them; the other modes consume all records.
+     * @param records The records to sample from.
+     * @return The sampled records in their original order.
+     */
+    public List<String[]> draw(Iterator<String[]> records) {
+        switch (this.mode) {
+            case FIRST:
+                List<String[]> first = new ArrayList<>(Math.min(this.numRows, 1024));
+                while (first.size() < this.numRows && records.hasNext())
+                    first.add(records.next());
+                return first;
+            case RESERVOIR:
+                return this.drawReservoir(records);
+            case FRACTION:
+                Random random = new Random(this.seed);
+                List<String[]> sample = new ArrayList<>();
+                while (records.hasNext()) {
+                    String[] record = records.next();
+                    if (random.nextDouble() < this.fraction)
+                        sample.add(record);
+                }
+                return sample;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private List<String[]> drawReservoir(Iterator<String[]> records) {
+        // Algorithm R: the i-th record replaces a random reservoir slot with probability numRows / i. The reservoir
+        // grows with the records, so that a large numRows does not allocate more than the relation needs
+        Random random = new Random(this.seed);
+        List<String[]> reservoir = new ArrayList<>(Math.min(this.numRows, 1024));
+        IntArrayList positions = new IntArrayList(Math.min(this.numRows, 1024));
+        int position = 0;
+        while (records.hasNext()) {
+            String[] record = records.next();
+            if (position < this.numRows) {
+                reservoir.add(record);
+                positions.add(position);
+            } else {
+                int slot = random.nextInt(position + 1);
+                if (slot < this.numRows) {
+                    reservoir.set(slot, record);
+                    positions.set(slot, position);
+                }
+            }
+            position++;
+        }
+
+        // Restore the original order of the sampled records
+        int[] order = new int[reservoir.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        IntArrays.quickSort(order, (a, b) -> Integer.compare(positions.getInt(a), positions.getInt(b)));
+
+        List<String[]> sample = new ArrayList<>(order.length);
+        for (int slot : order)
+            sample.add(reservoir.get(slot));
+        return sample;
+    }
+
+    @Override
+    public String toString() {
+        switch (this.mode) {
+            case FIRST:
+                return "first:" + this.numRows;
+            case RESERVOIR:
+                return "reservoir:" + this.numRows + ":" + this.seed;
+            default:
+                return "fraction:" + this.fraction + ":" + this.seed;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package de.di.schema_matching;
 
 import java.util.*;
+import de.di.ColumnarRelation;
+import de.di.EncodedColumn;
 import de.di.Relation;
+import de.di.RelationReader;
 import de.di.schema_matching.structures.SimilarityMatrix;
 import de.di.similarity_measures.Jaccard;
+import de.di.similarity_measures.helper.ParallelSimilarityMatrix;
 import de.di.similarity_measures.helper.Tokenizer;
 
 public class FirstLineSchemaMatcher {
@@ -18,13 +22,9 @@ public class FirstLineSchemaMatcher {
      * @return The similarity matrix that describes the attribute-to-attribute similarities of the two relations.
      */
     public SimilarityMatrix match(Relation sourceRelation, Relation targetRelation) {
-        String[][] sourceColumns = sourceRelation.getColumns();
-        String[][] targetColumns = targetRelation.getColumns();
-
-        // Initialize the similarity matrix
-        double[][] matrix = new double[sourceColumns.length][];
-        for (int i = 0; i < sourceColumns.length; i++)
-            matrix[i] = new double[targetColumns.length];
+        // The matching only reads the columns, so the cached columns are used instead of copies
+        String[][] sourceColumns = columnsOf(sourceRelation);
+        String[][] targetColumns = columnsOf(targetRelation);
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //                                      DATA INTEGRATION ASSIGNMENT                                           //
@@ -33,17 +33,94 @@ public class FirstLineSchemaMatcher {
         // further similarity measures, the data profiling algorithms and a clever matching strategy, much better     //
         // matching results are possible!                                                                             //
         Jaccard jc = new Jaccard(new Tokenizer(1, false), false);
-        // Calculate the Jaccard similarity for each pair of attributes
+        // Calculate the Jaccard similarity for each pair of attributes on all cores
+        double[][] matrix = new ParallelSimilarityMatrix(jc).calculate(sourceColumns, targetColumns);
+
+        //                                                                                                            //
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        return new SimilarityMatrix(matrix, sourceRelation, targetRelation);
+    }
+
+    /**
+     * Matches the attributes of the source and target table on their dictionary-encoded columns. The attribute
+     * similarities are the set-based Jaccard similarities of the column values, which are calculated by merging the
+     * sorted column dictionaries instead of building and intersecting hash sets.
+     * @param sourceRelation The first columnar relation that determines the first (= y) dimension of the similarity
+     *                       matrix, i.e., double[*][].
+     * @param targetRelation The second columnar relation that determines the second (= x) dimension of the similarity
+     *                       matrix, i.e., double[][*].
+     * @return The similarity matrix that refers to the relations of the two columnar relations.
+     */
+    public SimilarityMatrix match(ColumnarRelation sourceRelation, ColumnarRelation targetRelation) {
+        EncodedColumn[] sourceColumns = sourceRelation.getColumns();
+        EncodedColumn[] targetColumns = targetRelation.getColumns();
+
+        double[][] matrix = new double[sourceColumns.length][];
         for (int i = 0; i < sourceColumns.length; i++) {
+            matrix[i] = new double[targetColumns.length];
             for (int j = 0; j < targetColumns.length; j++) {
-                matrix[i][j] = jc.calculate(sourceColumns[i], targetColumns[j]);
+                int intersection = sourceColumns[i].intersectionSize(targetColumns[j]);
+                int union = sourceColumns[i].cardinality() + targetColumns[j].cardinality() - intersection;
+                matrix[i][j] = (union == 0) ? 1.0 : (double) intersection / union;
             }
         }
 
-        //                                                                                                            //
-        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        return new SimilarityMatrix(matrix, sourceRelation.getRelation(), targetRelation.getRelation());
+    }
 
-        return new SimilarityMatrix(matrix, sourceRelation, targetRelation);
+    /**
+     * Matches the attributes of the source and target table while streaming over their records. Because the
+     * attribute similarities are calculated with set semantics, only the distinct values of each column are kept in
+     * memory, not the records themselves; both readers are read in batches of at most batchSize records.
+     * @param sourceReader The reader of the first relation that determines the first (= y) dimension of the
+     *                     similarity matrix, i.e., double[*][].
+     * @param targetReader The reader of the second relation that determines the second (= x) dimension of the
+     *                     similarity matrix, i.e., double[][*].
+     * @param batchSize The maximum number of records per reader that are held in memory at the same time.
+     * @return The similarity matrix that refers to schema-only relations of the two readers.
+     */
+    public SimilarityMatrix match(RelationReader sourceReader, RelationReader targetReader, int batchSize) {
+        Relation sourceRelation = new Relation(sourceReader.getName(), sourceReader.getAttributes(), this.distinctColumns(sourceReader, batchSize));
+        Relation targetRelation = new Relation(targetReader.getName(), targetReader.getAttributes(), this.distinctColumns(targetReader, batchSize));
+
+        SimilarityMatrix distinctMatrix = this.match(sourceRelation, targetRelation);
+        return new SimilarityMatrix(distinctMatrix.getMatrix(), sourceReader.toSchemaRelation(), targetReader.toSchemaRelation());
     }
 
+    /**
+     * Streams the records of the reader into the distinct values of each column. The result is returned in the
+     * records layout of a Relation, i.e., the i-th distinct value of the j-th column is stored at [i][j] and shorter
+     * columns are padded with repetitions of their first value, which does not alter set-based similarities.
+     */
+    private String[][] distinctColumns(RelationReader reader, int batchSize) {
+        int numAttributes = reader.getAttributes().length;
+        List<Set<String>> sets = new ArrayList<>(numAttributes);
+        for (int i = 0; i < numAttributes; i++)
+            sets.add(new LinkedHashSet<>());
+
+        try (reader) {
+            List<String[]> batch;
+            while (!(batch = reader.nextBatch(batchSize)).isEmpty())
+                for (String[] record : batch)
+                    for (int i = 0; i < numAttributes; i++)
+                        sets.get(i).add(record[i]);
+        }
+
+        int numRecords = sets.stream().mapToInt(Set::size).max().orElse(0);
+        String[][] records = new String[numRecords][numAttributes];
+        for (int i = 0; i < numAttributes; i++) {
+            String[] values = sets.get(i).toArray(new String[0]);
+            for (int j = 0; j < numRecords; j++)
+                records[j][i] = (j < values.length) ? values[j] : values[0];
+        }
+        return records;
+    }
+
+    private static String[][] columnsOf(Relation relation) {
+        String[][] columns = new String[relation.getAttributes().length][];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = relation.getColumn(i);
+        return columns;
+    }
 }
@@ -0,0 +1,270 @@
+package de.di.similarity_measures;
+
+import it.unimi.dsi.fastutil.chars.Char2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * BitParallelLevenshtein calculates Levenshtein distances with the bit-vector algorithm of Myers in the formulation
+ * of Hyyrö. The algorithm encodes a whole column of the dynamic programming matrix as vertical deltas in machine words
+ * and, hence, processes a column of up to 64 cells with a few bit operations. Longer strings are split into blocks of
+ * 64 cells whose horizontal deltas are carried from block to block. For the Damerau (optimal string alignment)
+ * distance, the transposition extension of Hyyrö is supported for strings of up to 64 characters; longer strings need
+ * the dynamic programming of Levenshtein.
+ */
+public class BitParallelLevenshtein {
+
+    // The number of matrix cells that fit into one machine word.
+    private static final int WORD_SIZE = 64;
+
+    // The per-thread engines, which keep their pattern tables between calls, so that a calculation does not allocate.
+    private static final ThreadLocal<BitParallelLevenshtein> ENGINES = ThreadLocal.withInitial(BitParallelLevenshtein::new);
+
+    // The dense ids of the pattern characters; latin characters are looked up in an array, all others in a map.
+    private final int[] latinIds = new int[256];
+    private final Char2IntOpenHashMap otherIds = new Char2IntOpenHashMap();
+
+    // The match vectors of the pattern: bit i of word [id * numBlocks + block] is set if the character with the id
+    // occurs at position block * 64 + i of the pattern.
+    private long[] matchVectors = new long[256];
+
+    // The vertical positive and negative deltas of the current column, one word per block.
+    private long[] verticalPositive = new long[4];
+    private long[] verticalNegative = new long[4];
+
+    private BitParallelLevenshtein() {
+        Arrays.fill(this.latinIds, -1);
+        this.otherIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Checks whether the bit-parallel algorithm can calculate the distance of the two strings.
+     * @param string1 The first string.
+     * @param string2 The second string.
+     * @param withDamerau Whether the Damerau distance should be calculated.
+     * @return true if the distance can be calculated bit-parallel.
+     */
+    public static boolean supports(String string1, String string2, boolean withDamerau) {
+        return !withDamerau || Math.min(string1.length(), string2.length()) <= WORD_SIZE;
+    }
+
+    /**
+     * Calculates the (Damerau) Levenshtein distance of the two strings.
+     * @param string1 The first string.
+     * @param string2 The second string.
+     * @param withDamerau Whether the Damerau (optimal string alignment) distance should be calculated.
+     * @return The (Damerau) Levenshtein distance of the two strings.
+     */
+    public static int distance(String string1, String string2, boolean withDamerau) {
+        if (!supports(string1, string2, withDamerau))
+            throw new IllegalArgumentException("The Damerau distance is supported for strings of up to " + WORD_SIZE + " characters only.");
+
+        // The distance is symmetric, so the shorter string becomes the pattern, which minimizes the number of blocks
+        String pattern = (string1.length() <= string2.length()) ? string1 : string2;
+        String text = (pattern == string1) ? string2 : string1;
+        if (pattern.isEmpty())
+            return text.length();
+
+        BitParallelLevenshtein engine = ENGINES.get();
+        int numBlocks = (pattern.length() + WORD_SIZE - 1) / WORD_SIZE;
+        engine.index(pattern, numBlocks);
+        try {
+            return engine.distanceTo(pattern, text, numBlocks, withDamerau);
+        } finally {
+            engine.clear(pattern);
+        }
+    }
+
+    /**
+     * Calculates the (Damerau) Levenshtein distances of the pattern to all texts. The match vectors of the pattern are
+     * built only once for all texts, which makes the pattern the vertical dimension of all matrices, regardless of
+     * whether it is the shorter string; for the Damerau distance, the pattern must therefore fit into one machine word.
+     * @param pattern The string that is compared to all texts.
+     * @param texts The strings to which the pattern is compared.
+     * @param withDamerau Whether the Damerau (optimal string alignment) distances should be calculated.
+     * @return The (Damerau) Levenshtein distances of the pattern to the texts.
+     */
+    public static int[] distances(String pattern, String[] texts, boolean withDamerau) {
+        return distances(pattern, texts, 0, texts.length, withDamerau);
+    }
+
+    /**
+     * Calculates the (Damerau) Levenshtein distances of the pattern to the texts in the range [from, to), such that
+     * callers can compare the pattern to a part of an array without copying it.
+     * @param pattern The string that is compared to all texts in the range.
+     * @param texts The strings to which the pattern is compared.
+     * @param from The index of the first text, inclusive.
+     * @param to The index of the last text, exclusive.
+     * @param withDamerau Whether the Damerau (optimal string alignment) distances should be calculated.
+     * @return The (Damerau) Levenshtein distances of the pattern to the texts in the range, i.e., [i] is the distance
+     * to texts[from + i].
+     */
+    public static int[] distances(String pattern, String[] texts, int from, int to, boolean withDamerau) {
+        if (withDamerau && pattern.length() > WORD_SIZE)
+            throw new IllegalArgumentException("The Damerau distance is supported for patterns of up to " + WORD_SIZE + " characters only.");
+
+        int[] distances = new int[to - from];
+        if (pattern.isEmpty()) {
+            for (int i = 0; i < distances.length; i++)
+                distances[i] = texts[from + i].length();
+            return distances;
+        }
+
+        BitParallelLevenshtein engine = ENGINES.get();
+        int numBlocks = (pattern.length() + WORD_SIZE - 1) / WORD_SIZE;
+        engine.index(pattern, numBlocks);
+        try {
+            for (int i = 0; i < distances.length; i++)
+                distances[i] = engine.distanceTo(pattern, texts[from + i], numBlocks, withDamerau);
+        } finally {
+            engine.clear(pattern);
+        }
+        return distances;
+    }
+
+    private int distanceTo(String pattern, String text, int numBlocks, boolean withDamerau) {
+        if (withDamerau)
+            return this.damerauDistance(pattern, text);
+        if (numBlocks == 1)
+            return this.singleWordDistance(pattern, text);
+        return this.blockedDistance(pattern, text, numBlocks);
+    }
+
+    private void index(String pattern, int numBlocks) {
+        int numIds = 0;
+        for (int i = 0; i < pattern.length(); i++)
+            if (this.id(pattern.charAt(i)) < 0)
+                this.assignId(pattern.charAt(i), numIds++);
+
+        if (this.matchVectors.length < numIds * numBlocks)
+            this.matchVectors = new long[Math.max(numIds * numBlocks, 2 * this.matchVectors.length)];
+        Arrays.fill(this.matchVectors, 0, numIds * numBlocks, 0);
+        for (int i = 0; i < pattern.length(); i++)
+            this.matchVectors[this.id(pattern.charAt(i)) * numBlocks + i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+    }
+
+    private void clear(String pattern) {
+        for (int i = 0; i < pattern.length(); i++)
+            if (pattern.charAt(i) < 256)
+                this.latinIds[pattern.charAt(i)] = -1;
+        this.otherIds.clear();
+    }
+
+    private int id(char c) {
+        return (c < 256) ? this.latinIds[c] : this.otherIds.get(c);
+    }
+
+    private void assignId(char c, int id) {
+        if (c < 256)
+            this.latinIds[c] = id;
+        else
+            this.otherIds.put(c, id);
+    }
+
+    private long matchVector(char c, int numBlocks, int block) {
+        int id = this.id(c);
+        return (id < 0) ? 0 : this.matchVectors[id * numBlocks + block];
+    }
+
+    private int singleWordDistance(String pattern, String text) {
+        long last = 1L << (pattern.length() - 1);
+        long vp = (pattern.length() == WORD_SIZE) ? -1L : (last << 1) - 1;
+        long vn = 0;
+        int distance = pattern.length();
+
+        for (int j = 0; j < text.length(); j++) {
+            long eq = this.matchVector(text.charAt(j), 1, 0);
+            long d0 = (((eq & vp) + vp) ^ vp) | eq | vn;
+            long hp = vn | ~(d0 | vp);
+            long hn = vp & d0;
+
+            if ((hp & last) != 0)
+                distance++;
+            else if ((hn & last) != 0)
+                distance--;
+
+            hp = (hp << 1) | 1;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+        return distance;
+    }
+
+    private int damerauDistance(String pattern, String text) {
+        long last = 1L << (pattern.length() - 1);
+        long vp = (pattern.length() == WORD_SIZE) ? -1L : (last << 1) - 1;
+        long vn = 0;
+        long d0 = 0;
+        long previousEq = 0;
+        int distance = pattern.length();
+
+        for (int j = 0; j < text.length(); j++) {
+            long eq = this.matchVector(text.charAt(j), 1, 0);
+            long transpositions = (((~d0) & eq) << 1) & previousEq;
+            d0 = (((eq & vp) + vp) ^ vp) | eq | vn | transpositions;
+            long hp = vn | ~(d0 | vp);
+            long hn = vp & d0;
+
+            if ((hp & last) != 0)
+                distance++;
+            else if ((hn & last) != 0)
+                distance--;
+
+            hp = (hp << 1) | 1;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+            previousEq = eq;
+        }
+        return distance;
+    }
+
+    private int blockedDistance(String pattern, String text, int numBlocks) {
+        if (this.verticalPositive.length < numBlocks) {
+            this.verticalPositive = new long[Math.max(numBlocks, 2 * this.verticalPositive.length)];
+            this.verticalNegative = new long[this.verticalPositive.length];
+        }
+        long[] vps = this.verticalPositive;
+        long[] vns = this.verticalNegative;
+        Arrays.fill(vps, 0, numBlocks, -1L);
+        Arrays.fill(vns, 0, numBlocks, 0);
+        long last = 1L << ((pattern.length() - 1) % WORD_SIZE);
+        int distance = pattern.length();
+
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+
+            // The first row of the matrix grows by one per column, i.e., the first block receives a positive delta
+            long hpCarry = 1;
+            long hnCarry = 0;
+            for (int block = 0; block < numBlocks; block++) {
+                long eq = this.matchVector(c, numBlocks, block);
+                long vp = vps[block];
+                long vn = vns[block];
+
+                long x = eq | hnCarry;
+                long d0 = (((x & vp) + vp) ^ vp) | x | vn;
+                long hp = vn | ~(d0 | vp);
+                long hn = d0 & vp;
+
+                long hpCarryIn = hpCarry;
+                long hnCarryIn = hnCarry;
+                if (block < numBlocks - 1) {
+                    hpCarry = hp >>> (WORD_SIZE - 1);
+                    hnCarry = hn >>> (WORD_SIZE - 1);
+                } else {
+                    hpCarry = ((hp & last) != 0) ? 1 : 0;
+                    hnCarry = ((hn & last) != 0) ? 1 : 0;
+                }
+
+                hp = (hp << 1) | hpCarryIn;
+                hn = (hn << 1) | hnCarryIn;
+                vps[block] = hn | ~(d0 | hp);
+                vns[block] = hp & d0;
+            }
+            distance += (int) (hpCarry - hnCarry);
+        }
+        return distance;
+    }
+}
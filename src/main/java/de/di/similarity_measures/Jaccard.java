@@ -1,23 +1,36 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.ProfileCache;
 import de.di.similarity_measures.helper.Tokenizer;
-import lombok.AllArgsConstructor;
-
-import java.util.*;
-import java.util.stream.Collectors;
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+import lombok.Setter;
 
 /**
  * Implementation of the Jaccard similarity measure supporting both set and bag semantics.
  */
-@AllArgsConstructor
 public class Jaccard implements SimilarityMeasure {
 
+    // The reusable token hash buffer of every thread.
+    private static final ThreadLocal<LongArrayList> CODES = ThreadLocal.withInitial(LongArrayList::new);
+
     // The tokenizer that is used to transform string inputs into token lists.
     private final Tokenizer tokenizer;
 
     // A flag indicating whether the Jaccard algorithm should use set or bag semantics for the similarity calculation.
     private final boolean bagSemantics;
 
+    // The optional cache of the token profiles of recently profiled strings; null if strings should always be profiled.
+    @Getter
+    @Setter
+    private ProfileCache<TokenProfile> cache = null;
+
+    public Jaccard(final Tokenizer tokenizer, final boolean bagSemantics) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+    }
+
     /**
      * Calculates the Jaccard similarity of the two input strings. Note that the Jaccard similarity may use set or
      * multiset, i.e., bag semantics for the union and intersect operations. The maximum Jaccard similarity with
@@ -28,12 +41,7 @@ public class Jaccard implements SimilarityMeasure {
      */
     @Override
     public double calculate(String string1, String string2) {
-        string1 = (string1 == null) ? "" : string1;
-        string2 = (string2 == null) ? "" : string2;
-
-        String[] tokens1 = this.tokenizer.tokenize(string1);
-        String[] tokens2 = this.tokenizer.tokenize(string2);
-        return this.calculate(tokens1, tokens2);
+        return this.calculate(this.profile(string1), this.profile(string2));
     }
 
     /**
@@ -46,55 +54,86 @@ public class Jaccard implements SimilarityMeasure {
      */
     @Override
     public double calculate(String[] strings1, String[] strings2) {
-        // SET SEMANTICS: duplicates are ignored
-        if (!bagSemantics) {
-            Set<String> set1 = Arrays.stream(strings1)
-                    .collect(Collectors.toSet());
-            Set<String> set2 = Arrays.stream(strings2)                                    .collect(Collectors.toSet());
-
-            // Intersection and union for sets
-            Set<String> intersection = new HashSet<>(set1);
-            intersection.retainAll(set2);
+        return this.calculate(TokenProfile.of(strings1), TokenProfile.of(strings2));
+    }
 
-            Set<String> union = new HashSet<>(set1);
-            union.addAll(set2);
+    /**
+     * Calculates the Jaccard similarity of the two token profiles by merging their sorted token hashes; the
+     * calculation does not allocate any memory, so that values that are compared many times should be profiled once
+     * with profile() and then compared with this function.
+     * @param profile1 The first token profile argument for the similarity calculation.
+     * @param profile2 The second token profile argument for the similarity calculation.
+     * @return The Jaccard similarity of the two arguments.
+     */
+    public double calculate(TokenProfile profile1, TokenProfile profile2) {
+        // SET SEMANTICS: duplicates are ignored
+        if (!this.bagSemantics) {
+            int intersectionCount = profile1.intersectionSize(profile2);
+            int unionCount = profile1.numDistinctTokens() + profile2.numDistinctTokens() - intersectionCount;
 
             // If both sets are empty, define similarity as 1
-            if (union.isEmpty()) {
-                return 1.0;
-            }
-
-            return (double) intersection.size() / union.size();
+            return (unionCount == 0) ? 1.0 : (double) intersectionCount / unionCount;
         }
 
-        // BAG SEMANTICS: duplicates are counted
-        Map<String, Integer> freq1 = new HashMap<>();
-        for (String token : strings1) {
-            freq1.put(token, freq1.getOrDefault(token, 0) + 1);
-        }
+        // BAG SEMANTICS: duplicates are counted; the union size is the total number of tokens in both lists
+        int intersectionCount = profile1.bagIntersectionSize(profile2);
+        int unionCount = profile1.getNumTokens() + profile2.getNumTokens();
 
-        Map<String, Integer> freq2 = new HashMap<>();
-        for (String token : strings2) {
-            freq2.put(token, freq2.getOrDefault(token, 0) + 1);
-        }
+        // If both lists are empty, define similarity as 1
+        return (unionCount == 0) ? 1.0 : (double) intersectionCount / unionCount;
+    }
 
-        // Compute intersection size: sum of minima of token counts
-        int intersectionCount = 0;
-        for (Map.Entry<String, Integer> entry : freq1.entrySet()) {
-            String token = entry.getKey();
-            if (freq2.containsKey(token)) {
-                intersectionCount += Math.min(entry.getValue(), freq2.get(token));
-            }
-        }
+    /**
+     * Tokenizes the input string with the tokenizer of this Jaccard instance into its token profile; the tokens are
+     * encoded into a reusable buffer of token hashes instead of being materialized as strings. If this Jaccard instance
+     * has a cache, the profile is taken from the cache if possible.
+     * @param string The string to profile; null is treated as the empty string.
+     * @return The token profile of the string.
+     */
+    public TokenProfile profile(String string) {
+        string = (string == null) ? "" : string;
+        return (this.cache == null) ? this.encode(string) : this.cache.get(string, this::encode);
+    }
 
-        // Union size: total tokens in both arrays
-        int unionCount = strings1.length + strings2.length;
+    private TokenProfile encode(String string) {
+        LongArrayList codes = CODES.get();
+        this.tokenizer.encode(string, codes);
+        return TokenProfile.ofHashes(codes.elements(), codes.size());
+    }
 
-        // If both lists are empty, define similarity as 1
-        if (unionCount == 0) {
-            return 1.0;
-        }
+    /**
+     * Calculates the Jaccard similarities of the query string to the candidate strings in the range [from, to). The
+     * query is tokenized and profiled only once for all candidates.
+     * @param query The string that is compared to the candidates.
+     * @param candidates The strings to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The Jaccard similarities of the query to the candidates in the range.
+     */
+    @Override
+    public double[] calculateAll(String query, String[] candidates, int from, int to) {
+        TokenProfile queryProfile = this.profile(query);
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = this.calculate(queryProfile, this.profile(candidates[from + i]));
+        return similarities;
+    }
 
-        return (double) intersectionCount / unionCount;
+    /**
+     * Calculates the Jaccard similarities of the query string list to the candidate string lists in the range
+     * [from, to). The query is profiled only once for all candidates.
+     * @param query The string list that is compared to the candidates.
+     * @param candidates The string lists to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The Jaccard similarities of the query to the candidates in the range.
+     */
+    @Override
+    public double[] calculateAll(String[] query, String[][] candidates, int from, int to) {
+        TokenProfile queryProfile = TokenProfile.of(query);
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = this.calculate(queryProfile, TokenProfile.of(candidates[from + i]));
+        return similarities;
     }
-}
\ No newline at end of file
+}
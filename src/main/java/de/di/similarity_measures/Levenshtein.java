@@ -1,5 +1,6 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.structures.TokenProfile;
 import lombok.AllArgsConstructor;
 
 import java.util.Arrays;
@@ -11,6 +12,38 @@ public class Levenshtein implements SimilarityMeasure {
         return Arrays.stream(numbers).min().orElse(Integer.MAX_VALUE);
     }
 
+    /**
+     * Returns the minimum of three numbers. This overload is chosen over the varargs variant for exactly three
+     * arguments, which avoids the array allocation and stream of the latter in the inner loop of the algorithm.
+     * @param a The first number.
+     * @param b The second number.
+     * @param c The third number.
+     * @return The smallest of the three numbers.
+     */
+    public static int min(int a, int b, int c) {
+        return Math.min(Math.min(a, b), c);
+    }
+
+    // The three reusable matrix lines of every thread, so that a calculation does not allocate any memory.
+    private static final ThreadLocal<int[][]> LINES = ThreadLocal.withInitial(() -> new int[3][64]);
+
+    /**
+     * Returns the three matrix lines of the current thread with at least the provided length; the lines contain
+     * arbitrary values from previous calculations.
+     * @param length The minimum length of the lines.
+     * @return The three matrix lines of the current thread.
+     */
+    private static int[][] lines(int length) {
+        int[][] lines = LINES.get();
+        if (lines[0].length < length)
+            for (int i = 0; i < lines.length; i++)
+                lines[i] = new int[Math.max(length, 2 * lines[i].length)];
+        return lines;
+    }
+
+    // The two reusable token code buffers of every thread for the comparison of string lists.
+    private static final ThreadLocal<long[][]> CODES = ThreadLocal.withInitial(() -> new long[2][64]);
+
     // The choice of whether Levenshtein or DamerauLevenshtein should be calculated.
     private final boolean withDamerau;
 
@@ -25,9 +58,18 @@ public class Levenshtein implements SimilarityMeasure {
     public double calculate(final String string1, final String string2) {
         double levenshteinSimilarity = 0;
 
-        int[] upperupperLine = new int[string1.length() + 1];   // line for Demarau lookups
-        int[] upperLine = new int[string1.length() + 1];        // line for regular Levenshtein lookups
-        int[] lowerLine = new int[string1.length() + 1];        // line to be filled next by the algorithm
+        // The bit-parallel engine calculates a whole matrix column per machine word; the dynamic programming below is
+        // only needed for Damerau distances of strings that do not fit into one machine word
+        if (BitParallelLevenshtein.supports(string1, string2, this.withDamerau)) {
+            int distance = BitParallelLevenshtein.distance(string1, string2, this.withDamerau);
+            int maxLength = Math.max(string1.length(), string2.length());
+            return (maxLength == 0) ? 1.0 : 1.0 - ((double) distance / maxLength);
+        }
+
+        int[][] lines = lines(string1.length() + 1);
+        int[] upperupperLine = lines[0];   // line for Demarau lookups
+        int[] upperLine = lines[1];        // line for regular Levenshtein lookups
+        int[] lowerLine = lines[2];        // line to be filled next by the algorithm
 
         // Fill the first line with the initial positions (= edits to generate string1 from nothing)
         for (int i = 0; i <= string1.length(); i++)
@@ -41,9 +83,10 @@ public class Levenshtein implements SimilarityMeasure {
         // to the String tuple function and adjust it a bit to work on the arrays - the algorithm is the same.        //
 
         for (int j = 1; j <= string2.length(); j++) {
+            char char2 = string2.charAt(j - 1);
             lowerLine[0] = j;
             for (int i = 1; i <= string1.length(); i++) {
-                int cost = (string1.charAt(i - 1) == string2.charAt(j - 1)) ? 0 : 1;
+                int cost = (string1.charAt(i - 1) == char2) ? 0 : 1;
 
                 lowerLine[i] = min(
                         lowerLine[i - 1] + 1,      // insertion
@@ -58,9 +101,11 @@ public class Levenshtein implements SimilarityMeasure {
                 }
             }
 
-            // shift lines for next iteration
-            System.arraycopy(upperLine, 0, upperupperLine, 0, upperLine.length);
-            System.arraycopy(lowerLine, 0, upperLine, 0, lowerLine.length);
+            // rotate lines for next iteration; the old upperupperLine is overwritten next
+            int[] freeLine = upperupperLine;
+            upperupperLine = upperLine;
+            upperLine = lowerLine;
+            lowerLine = freeLine;
         }
 
         int distance = upperLine[string1.length()];
@@ -72,25 +117,178 @@ public class Levenshtein implements SimilarityMeasure {
         return levenshteinSimilarity;
     }
 
+    /**
+     * Calculates the Levenshtein similarities of the query string to the candidate strings in the range [from, to).
+     * The bit-parallel match vectors of the query are built only once for all candidates; only Damerau similarities
+     * of queries that do not fit into one machine word are calculated pair by pair.
+     * @param query The string that is compared to the candidates.
+     * @param candidates The strings to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The (Damerau) Levenshtein similarities of the query to the candidates in the range.
+     */
+    @Override
+    public double[] calculateAll(final String query, final String[] candidates, final int from, final int to) {
+        if (this.withDamerau && !BitParallelLevenshtein.supports(query, query, true))
+            return SimilarityMeasure.super.calculateAll(query, candidates, from, to);
+
+        int[] distances = BitParallelLevenshtein.distances(query, candidates, from, to, this.withDamerau);
+        double[] similarities = new double[distances.length];
+        for (int i = 0; i < similarities.length; i++) {
+            int maxLength = Math.max(query.length(), candidates[from + i].length());
+            similarities[i] = (maxLength == 0) ? 1.0 : 1.0 - ((double) distances[i] / maxLength);
+        }
+        return similarities;
+    }
+
+    /**
+     * Calculates the Levenshtein similarity of the two input strings, if it is at least the provided minimum
+     * similarity. Because only similarities above the minimum are of interest, the calculation is bounded to the
+     * maximum distance that the minimum similarity permits; see boundedDistance().
+     * @param string1 The first string argument for the similarity calculation.
+     * @param string2 The second string argument for the similarity calculation.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The (Damerau) Levenshtein similarity of the two arguments if it is at least minSimilarity; 0 otherwise.
+     */
+    public double calculate(final String string1, final String string2, final double minSimilarity) {
+        int maxLength = Math.max(string1.length(), string2.length());
+        if (maxLength == 0)
+            return 1.0;
+
+        // The epsilon protects against rounding errors of the product, e.g., for (1 - 0.7) * 10
+        int maxDistance = (int) Math.floor((1 - minSimilarity) * maxLength + 1e-9);
+        if (maxDistance < 0)
+            return 0;
+        int distance = this.boundedDistance(string1, string2, maxDistance);
+        return (distance > maxDistance) ? 0 : 1.0 - ((double) distance / maxLength);
+    }
+
+    /**
+     * Calculates the (Damerau) Levenshtein distance of the two input strings, if it is at most the provided maximum
+     * distance k. The calculation is skipped entirely if the length difference of the strings already exceeds k;
+     * otherwise, only the diagonal band of width 2k + 1 of the matrix is calculated (Ukkonen), because all cells
+     * outside the band have a distance greater than k. The calculation is aborted as soon as all cells of a line
+     * exceed k, because the distance can only grow from line to line.
+     * @param string1 The first string argument for the distance calculation.
+     * @param string2 The second string argument for the distance calculation.
+     * @param maxDistance The maximum distance k of interest.
+     * @return The (Damerau) Levenshtein distance of the two arguments if it is at most k; k + 1 otherwise.
+     */
+    public int boundedDistance(final String string1, final String string2, int maxDistance) {
+        int length1 = string1.length();
+        int length2 = string2.length();
+        if (Math.abs(length1 - length2) > maxDistance)
+            return maxDistance + 1;
+        int k = Math.min(maxDistance, Math.max(length1, length2));
+        int outside = k + 1; // the value of all cells outside the band
+
+        int[][] lines = lines(length1 + 2);
+        int[] upperupperLine = lines[0];   // line for Damerau lookups
+        int[] upperLine = lines[1];        // line for regular Levenshtein lookups
+        int[] lowerLine = lines[2];        // line to be filled next by the algorithm
+
+        for (int i = 0; i <= Math.min(length1, k); i++)
+            upperLine[i] = i;
+        upperLine[Math.min(length1, k) + 1] = outside;
+
+        for (int j = 1; j <= length2; j++) {
+            char char2 = string2.charAt(j - 1);
+            int from = Math.max(1, j - k);
+            int to = Math.min(length1, j + k);
+
+            lowerLine[from - 1] = (from == 1) ? j : outside;
+            int lineMin = lowerLine[from - 1];
+            for (int i = from; i <= to; i++) {
+                int cost = (string1.charAt(i - 1) == char2) ? 0 : 1;
+
+                int distance = min(
+                        lowerLine[i - 1] + 1,      // insertion
+                        upperLine[i] + 1,          // deletion
+                        upperLine[i - 1] + cost    // substitution
+                );
+
+                if (this.withDamerau && i > 1 && j > 1
+                        && string1.charAt(i - 1) == string2.charAt(j - 2)
+                        && string1.charAt(i - 2) == char2) {
+                    distance = Math.min(distance, upperupperLine[i - 2] + 1); // transposition
+                }
+
+                lowerLine[i] = distance;
+                lineMin = Math.min(lineMin, distance);
+            }
+            lowerLine[to + 1] = outside;
+
+            // Every path to the last cell crosses this line; a transposition that skips the line costs at least as
+            // much as the substitution path through the line
+            if (lineMin > k)
+                return maxDistance + 1;
+
+            int[] freeLine = upperupperLine;
+            upperupperLine = upperLine;
+            upperLine = lowerLine;
+            lowerLine = freeLine;
+        }
+
+        int distance = upperLine[length1];
+        return (distance > maxDistance) ? maxDistance + 1 : distance;
+    }
+
     /**
      * Calculates the Levenshtein similarity of the two input string lists.
      * The Levenshtein similarity is defined as "1 - normalized Levenshtein distance".
      * For string lists, we consider each list as an ordered list of tokens and calculate the distance as the number of
-     * token insertions, deletions, replacements (and swaps) that transform one list into the other.
+     * token insertions, deletions, replacements (and swaps) that transform one list into the other. The tokens are
+     * encoded into their 64 bit hashes once, so that the quadratically many token comparisons reject unequal tokens
+     * by comparing longs; tokens with equal hashes are still compared with equals(), so that a hash collision never
+     * makes two different tokens equal.
      * @param strings1 The first string list argument for the similarity calculation.
      * @param strings2 The second string list argument for the similarity calculation.
      * @return The (multiset) Levenshtein similarity of the two arguments.
      */
     @Override
     public double calculate(final String[] strings1, final String[] strings2) {
+        long[][] codes = CODES.get();
+        if (codes[0].length < Math.max(strings1.length, strings2.length))
+            for (int i = 0; i < codes.length; i++)
+                codes[i] = new long[Math.max(Math.max(strings1.length, strings2.length), 2 * codes[i].length)];
+
+        for (int i = 0; i < strings1.length; i++)
+            codes[0][i] = TokenProfile.hash(strings1[i]);
+        for (int j = 0; j < strings2.length; j++)
+            codes[1][j] = TokenProfile.hash(strings2[j]);
+        return this.calculate(codes[0], strings1, strings1.length, codes[1], strings2, strings2.length);
+    }
+
+    /**
+     * Calculates the Levenshtein similarity of the two encoded token lists, e.g., as produced by Tokenizer.encode().
+     * Two tokens are considered equal if their codes are equal.
+     * @param codes1 The first token code list argument for the similarity calculation.
+     * @param length1 The number of token codes in the first array, which may be larger.
+     * @param codes2 The second token code list argument for the similarity calculation.
+     * @param length2 The number of token codes in the second array, which may be larger.
+     * @return The (multiset) Levenshtein similarity of the two arguments.
+     */
+    public double calculate(final long[] codes1, final int length1, final long[] codes2, final int length2) {
+        return this.calculate(codes1, null, length1, codes2, null, length2);
+    }
+
+    /**
+     * Two tokens are equal if their codes are equal and, if the tokens are known, the tokens themselves are equal.
+     */
+    private static boolean equal(long[] codes1, String[] tokens1, int i, long[] codes2, String[] tokens2, int j) {
+        return codes1[i] == codes2[j] && (tokens1 == null || tokens1[i].equals(tokens2[j]));
+    }
+
+    private double calculate(long[] codes1, String[] tokens1, int length1, long[] codes2, String[] tokens2, int length2) {
         double levenshteinSimilarity = 0;
 
-        int[] upperupperLine = new int[strings1.length + 1];   // line for Damerau lookups
-        int[] upperLine = new int[strings1.length + 1];        // line for regular Levenshtein lookups
-        int[] lowerLine = new int[strings1.length + 1];        // line to be filled next by the algorithm
+        int[][] lines = lines(length1 + 1);
+        int[] upperupperLine = lines[0];   // line for Damerau lookups
+        int[] upperLine = lines[1];        // line for regular Levenshtein lookups
+        int[] lowerLine = lines[2];        // line to be filled next by the algorithm
 
         // Fill the first line with the initial positions (= edits to generate string1 from nothing)
-        for (int i = 0; i <= strings1.length; i++)
+        for (int i = 0; i <= length1; i++)
             upperLine[i] = i;
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -100,10 +298,10 @@ public class Levenshtein implements SimilarityMeasure {
         // used during calculation or not. Hint: Implement the Levenshtein algorithm above first, then copy the code  //
         // to this function and adjust it a bit to work on the arrays - the algorithm is the same.                    //
 
-        for (int j = 1; j <= strings2.length; j++) {
+        for (int j = 1; j <= length2; j++) {
             lowerLine[0] = j;
-            for (int i = 1; i <= strings1.length; i++) {
-                int cost = strings1[i - 1].equals(strings2[j - 1]) ? 0 : 1;
+            for (int i = 1; i <= length1; i++) {
+                int cost = equal(codes1, tokens1, i - 1, codes2, tokens2, j - 1) ? 0 : 1;
 
                 lowerLine[i] = min(
                         lowerLine[i - 1] + 1,      // insertion
@@ -112,23 +310,25 @@ public class Levenshtein implements SimilarityMeasure {
                 );
 
                 if (withDamerau && i > 1 && j > 1
-                        && strings1[i - 1].equals(strings2[j - 2])
-                        && strings1[i - 2].equals(strings2[j - 1])) {
+                        && equal(codes1, tokens1, i - 1, codes2, tokens2, j - 2)
+                        && equal(codes1, tokens1, i - 2, codes2, tokens2, j - 1)) {
                     lowerLine[i] = Math.min(lowerLine[i], upperupperLine[i - 2] + 1); // transposition
                 }
             }
 
-            // shift lines
-            System.arraycopy(upperLine, 0, upperupperLine, 0, upperLine.length);
-            System.arraycopy(lowerLine, 0, upperLine, 0, lowerLine.length);
+            // rotate lines
+            int[] freeLine = upperupperLine;
+            upperupperLine = upperLine;
+            upperLine = lowerLine;
+            lowerLine = freeLine;
         }
 
-        int distance = upperLine[strings1.length];
-        int maxLength = Math.max(strings1.length, strings2.length);
+        int distance = upperLine[length1];
+        int maxLength = Math.max(length1, length2);
         levenshteinSimilarity = (maxLength == 0) ? 1.0 : 1.0 - ((double) distance / maxLength);
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
         return levenshteinSimilarity;
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,61 @@
 package de.di.similarity_measures;
 
 import de.di.similarity_measures.helper.MinHash;
+import de.di.similarity_measures.helper.MinHashScheme;
+import de.di.similarity_measures.helper.ProfileCache;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.MinHashSignatures;
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class LocalitySensitiveHashing implements SimilarityMeasure {
 
+    // The reusable token hash buffer of every thread.
+    private static final ThreadLocal<LongArrayList> CODES = ThreadLocal.withInitial(LongArrayList::new);
+
     // The tokenizer that is used to transform string inputs into token lists.
     private final Tokenizer tokenizer;
 
-    // The MinHash functions that are used to calculate the LSH signatures.
+    // The MinHash functions that are used to calculate the LSH signatures; null if a numeric MinHash scheme is used.
     private final List<MinHash> minHashFunctions;
 
+    // The numeric MinHash scheme that is used to calculate the LSH signatures; null if the MinHash functions are used.
+    private final MinHashScheme minHashScheme;
+
+    // The optional cache of the signatures of recently hashed strings; null if signatures should always be calculated.
+    @Getter
+    @Setter
+    private ProfileCache<int[]> cache = null;
+
     public LocalitySensitiveHashing(final Tokenizer tokenizer, final int numHashFunctions) {
+        this(tokenizer, numHashFunctions, false);
+    }
+
+    public LocalitySensitiveHashing(final Tokenizer tokenizer, final int numHashFunctions, final boolean unicode) {
         this.tokenizer = tokenizer;
         this.minHashFunctions = new ArrayList<>(numHashFunctions);
         for (int i = 0; i < numHashFunctions; i++)
-            this.minHashFunctions.add(new MinHash(i));
+            this.minHashFunctions.add(new MinHash(i, unicode));
+        this.minHashScheme = null;
+    }
+
+    public LocalitySensitiveHashing(final Tokenizer tokenizer, final MinHashScheme minHashScheme) {
+        this.tokenizer = tokenizer;
+        this.minHashFunctions = null;
+        this.minHashScheme = minHashScheme;
+    }
+
+    /**
+     * Returns the number of components of the signatures of this instance.
+     * @return The signature length.
+     */
+    public int getSignatureLength() {
+        return (this.minHashScheme == null) ? this.minHashFunctions.size() : this.minHashScheme.getSignatureLength();
     }
 
     /**
@@ -27,15 +63,14 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
      * The LHS algorithm calculates the LHS signatures by first tokenizing the input strings and then applying its
      * internal MinHash functions to the tokenized strings. Then, it uses the two signatures to approximate the Jaccard
      * similarity of the two strings with their signatures by simply applying the Jaccard algorithm on the two signatures.
+     * If this instance has a cache, the signatures are taken from the cache if possible.
      * @param string1 The first string argument for the similarity calculation.
      * @param string2 The second string argument for the similarity calculation.
      * @return The LSH similarity (= Jaccard approximation) of the two arguments.
      */
     @Override
     public double calculate(final String string1, final String string2) {
-        String[] strings1 = this.tokenizer.tokenize(string1);
-        String[] strings2 = this.tokenizer.tokenize(string2);
-        return this.calculate(strings1, strings2);
+        return MinHashScheme.similarity(this.cachedSignature(string1), this.cachedSignature(string2));
     }
 
     /**
@@ -50,10 +85,6 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
     @Override
     public double calculate(final String[] strings1, final String[] strings2) {
         double lshJaccard = 0;
-        int k = this.minHashFunctions.size();
-
-        String[] signature1 = new String[k];
-        String[] signature2 = new String[k];
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //                                      DATA INTEGRATION ASSIGNMENT                                           //
@@ -61,26 +92,110 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
         // approximate the Jaccard similarity.                                                                        //
 
         // Generate the signature for both string arrays
-        for (int i = 0; i < k; i++) {
-            MinHash minHash = minHashFunctions.get(i);
-            signature1[i] = minHash.hash(strings1);
-            signature2[i] = minHash.hash(strings2);
-        }
-
-        // Calculate the number of matching positions
-        int matchCount = 0;
-        for (int i = 0; i < k; i++) {
-            if (signature1[i].equals(signature2[i])) {
-                matchCount++;
-            }
-        }
+        int[] signature1 = this.signature(strings1);
+        int[] signature2 = this.signature(strings2);
 
         // Approximate Jaccard similarity = #matches / total hash functions
-        lshJaccard = (double) matchCount / k;
+        lshJaccard = MinHashScheme.similarity(signature1, signature2);
 
         //                                                                                                            //
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
         return lshJaccard;
     }
-}
\ No newline at end of file
+
+    /**
+     * Calculates the LSH similarities of the query string to the candidate strings in the range [from, to). The
+     * query is tokenized and its signature is calculated only once for all candidates.
+     * @param query The string that is compared to the candidates.
+     * @param candidates The strings to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The LSH similarities of the query to the candidates in the range.
+     */
+    @Override
+    public double[] calculateAll(final String query, final String[] candidates, final int from, final int to) {
+        int[] querySignature = this.cachedSignature(query);
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = MinHashScheme.similarity(querySignature, this.cachedSignature(candidates[from + i]));
+        return similarities;
+    }
+
+    /**
+     * Calculates the LSH similarities of the query string list to the candidate string lists in the range
+     * [from, to). The signature of the query is calculated only once for all candidates.
+     * @param query The string list that is compared to the candidates.
+     * @param candidates The string lists to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The LSH similarities of the query to the candidates in the range.
+     */
+    @Override
+    public double[] calculateAll(final String[] query, final String[][] candidates, final int from, final int to) {
+        int[] querySignature = this.signature(query);
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = MinHashScheme.similarity(querySignature, this.signature(candidates[from + i]));
+        return similarities;
+    }
+
+    /**
+     * Calculates the signatures of all provided strings once, so that the LSH similarity of any two of them is then
+     * estimated by comparing their stored signatures; see MinHashSignatures.similarity(). If this instance has a
+     * cache, the signatures are taken from the cache if possible.
+     * @param strings The strings to sign.
+     * @return The signatures of the strings in the order of the strings.
+     */
+    public MinHashSignatures signAll(final String[] strings) {
+        MinHashSignatures signatures = new MinHashSignatures(strings.length, this.getSignatureLength());
+        for (int i = 0; i < strings.length; i++)
+            signatures.set(i, this.cachedSignature(strings[i]));
+        return signatures;
+    }
+
+    /**
+     * Calculates the signature of the input string, e.g., to insert it into or to query an LSHForest. If this instance
+     * has a cache, the signature is taken from the cache if possible. The returned array belongs to the caller.
+     * @param string The string to sign.
+     * @return The signature of the string.
+     */
+    public int[] signature(final String string) {
+        if (this.cache == null)
+            return this.calculateSignature(string);
+        // The cached array is shared by all later lookups of the string, so that callers get a copy of it
+        return this.cachedSignature(string).clone();
+    }
+
+    private int[] cachedSignature(final String string) {
+        if (this.cache == null)
+            return this.calculateSignature(string);
+        return this.cache.get(string, this::calculateSignature);
+    }
+
+    private int[] calculateSignature(final String string) {
+        if (this.minHashScheme == null)
+            return this.signature(this.tokenizer.tokenize(string));
+
+        // The numeric MinHash consumes the token hashes directly, so that the tokens are never materialized
+        LongArrayList codes = CODES.get();
+        this.tokenizer.encode(string, codes);
+        return this.minHashScheme.signature(codes.elements(), codes.size());
+    }
+
+    private int[] signature(final String[] strings) {
+        if (this.minHashScheme != null) {
+            long[] codes = new long[strings.length];
+            for (int i = 0; i < strings.length; i++)
+                codes[i] = TokenProfile.hash(strings[i]);
+            return this.minHashScheme.signature(codes, codes.length);
+        }
+
+        // The minimum token of every MinHash function is represented by its hash, so that both kinds of signatures
+        // are compared as int arrays
+        int[] signature = new int[this.minHashFunctions.size()];
+        for (int i = 0; i < signature.length; i++)
+            signature[i] = (int) TokenProfile.hash(this.minHashFunctions.get(i).hash(strings));
+        return signature;
+    }
+}
@@ -0,0 +1,297 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.SimilarPair;
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A SetSimilarityJoin finds all pairs of values whose Jaccard similarity is at least a threshold without comparing all
+ * pairs (PPJoin). The values are tokenized with the Tokenizer and the set or bag semantics of the Jaccard class, and
+ * their tokens are sorted by a global order of ascending token frequency. Two values can only reach the threshold if
+ * they share enough tokens, i.e., if they share at least one token in short prefixes of their sorted tokens, which
+ * mostly consist of rare tokens. Hence, only the prefixes are indexed and probed; the length filter skips values whose
+ * size alone rules out the threshold, and the positional filter drops candidates whose remaining tokens cannot make up
+ * for the missing overlap. The few remaining candidates are verified with their exact Jaccard similarity.
+ */
+public class SetSimilarityJoin {
+
+    // The tolerance of the filter bounds, which keeps them from being tighter than the verified similarity.
+    private static final double EPSILON = 1e-9;
+
+    // The overlap of candidates that the positional filter has ruled out.
+    private static final int PRUNED = -1;
+
+    // The tokenizer that is used to transform the values into token lists.
+    private final Tokenizer tokenizer;
+
+    // A flag indicating whether the Jaccard similarity should use set or bag semantics.
+    private final boolean bagSemantics;
+
+    // The minimum Jaccard similarity of the joined pairs.
+    private final double threshold;
+
+    public SetSimilarityJoin(final Tokenizer tokenizer, final boolean bagSemantics, final double threshold) {
+        if (threshold <= 0 || threshold > 1)
+            throw new IllegalArgumentException("The threshold must be in (0, 1], but is " + threshold + ".");
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Finds all pairs of a value of the first and a value of the second array whose Jaccard similarity is at least
+     * the threshold.
+     * @param values1 The first values to join; null is treated as the empty string.
+     * @param values2 The second values to join; null is treated as the empty string.
+     * @return The similar pairs sorted by their indexes; index1 refers to values1 and index2 to values2.
+     */
+    public List<SimilarPair> join(String[] values1, String[] values2) {
+        return this.join(values1, values2, false);
+    }
+
+    /**
+     * Finds all pairs of two different values of the array whose Jaccard similarity is at least the threshold.
+     * @param values The values to join; null is treated as the empty string.
+     * @return The similar pairs sorted by their indexes, each with index1 < index2.
+     */
+    public List<SimilarPair> selfJoin(String[] values) {
+        return this.join(values, values, true);
+    }
+
+    private List<SimilarPair> join(String[] values1, String[] values2, boolean self) {
+        long[][] hashes1 = this.tokenHashes(values1);
+        long[][] hashes2 = self ? hashes1 : this.tokenHashes(values2);
+        Long2IntOpenHashMap ranks = globalOrder(hashes1, self ? new long[0][] : hashes2);
+        int[][] records1 = toRanks(hashes1, ranks);
+        int[][] records2 = self ? records1 : toRanks(hashes2, ranks);
+
+        List<SimilarPair> pairs = new ArrayList<>();
+        this.joinEmptyValues(records1, records2, self, pairs);
+        this.joinNonEmptyValues(records1, records2, self, ranks.size(), pairs);
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    private long[][] tokenHashes(String[] values) {
+        long[][] hashes = new long[values.length][];
+        LongArrayList codes = new LongArrayList();
+        for (int i = 0; i < values.length; i++) {
+            this.tokenizer.encode((values[i] == null) ? "" : values[i], codes);
+            TokenProfile profile = TokenProfile.ofHashes(codes.elements(), codes.size());
+            if (!this.bagSemantics) {
+                hashes[i] = profile.getHashes();
+                continue;
+            }
+
+            // With bag semantics, the k-th occurrence of a token becomes a distinct token, so that the set
+            // intersection of the expanded tokens is the multiset intersection of the original tokens
+            hashes[i] = new long[profile.getNumTokens()];
+            int position = 0;
+            for (int j = 0; j < profile.getHashes().length; j++)
+                for (int occurrence = 0; occurrence < profile.getCounts()[j]; occurrence++)
+                    hashes[i][position++] = (occurrence == 0) ? profile.getHashes()[j] : TokenProfile.mix(profile.getHashes()[j] + occurrence * 0x9E3779B97F4A7C15L);
+        }
+        return hashes;
+    }
+
+    /**
+     * Ranks all token hashes by their ascending document frequency, i.e., rare tokens first, because the prefixes of
+     * rare tokens produce the fewest candidates.
+     */
+    private static Long2IntOpenHashMap globalOrder(long[][] hashes1, long[][] hashes2) {
+        Long2IntOpenHashMap frequencies = new Long2IntOpenHashMap();
+        for (long[][] hashes : new long[][][]{hashes1, hashes2})
+            for (long[] record : hashes)
+                for (long hash : record)
+                    frequencies.addTo(hash, 1);
+
+        long[] tokens = frequencies.keySet().toLongArray();
+        int[] order = new int[tokens.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        IntArrays.quickSort(order, (a, b) -> {
+            int comparison = Integer.compare(frequencies.get(tokens[a]), frequencies.get(tokens[b]));
+            return (comparison != 0) ? comparison : Long.compare(tokens[a], tokens[b]);
+        });
+
+        Long2IntOpenHashMap ranks = new Long2IntOpenHashMap(tokens.length);
+        for (int rank = 0; rank < order.length; rank++)
+            ranks.put(tokens[order[rank]], rank);
+        return ranks;
+    }
+
+    private static int[][] toRanks(long[][] hashes, Long2IntOpenHashMap ranks) {
+        int[][] records = new int[hashes.length][];
+        for (int i = 0; i < hashes.length; i++) {
+            records[i] = new int[hashes[i].length];
+            for (int j = 0; j < hashes[i].length; j++)
+                records[i][j] = ranks.get(hashes[i][j]);
+            IntArrays.quickSort(records[i]);
+        }
+        return records;
+    }
+
+    /**
+     * Pairs all empty values, which have a Jaccard similarity of 1 to each other but share no token to be found by.
+     */
+    private void joinEmptyValues(int[][] records1, int[][] records2, boolean self, List<SimilarPair> pairs) {
+        IntArrayList empty2 = new IntArrayList();
+        for (int i = 0; i < records2.length; i++)
+            if (records2[i].length == 0)
+                empty2.add(i);
+        for (int i = 0; i < records1.length; i++)
+            if (records1[i].length == 0)
+                for (int j : empty2)
+                    if (!self || i < j)
+                        pairs.add(new SimilarPair(i, j, 1.0));
+    }
+
+    private void joinNonEmptyValues(int[][] records1, int[][] records2, boolean self, int numRanks, List<SimilarPair> pairs) {
+        // Index the prefixes of the second records in the order of their sizes, so that every posting list is sorted by size
+        int[] order2 = sizeOrder(records2);
+        int[] offsets = new int[numRanks + 1];
+        for (int s : order2)
+            for (int j = 0; j < this.prefixLength(records2[s].length); j++)
+                offsets[records2[s][j] + 1]++;
+        for (int rank = 0; rank < numRanks; rank++)
+            offsets[rank + 1] += offsets[rank];
+        int[] postingRecords = new int[offsets[numRanks]];
+        int[] postingPositions = new int[offsets[numRanks]];
+        int[] fill = offsets.clone();
+        for (int s : order2) {
+            for (int j = 0; j < this.prefixLength(records2[s].length); j++) {
+                int posting = fill[records2[s][j]]++;
+                postingRecords[posting] = s;
+                postingPositions[posting] = j;
+            }
+        }
+
+        // Probe with the prefixes of the first records in the order of their sizes; because the minimum partner size
+        // grows with the probe size, the postings of too small records are skipped once and for all
+        int[] starts = offsets.clone();
+        int[] overlaps = new int[records2.length];
+        IntArrayList candidates = new IntArrayList();
+        for (int r : sizeOrder(records1)) {
+            int[] record = records1[r];
+            int size = record.length;
+            if (size == 0)
+                continue;
+            int minSize = this.minPartnerSize(size);
+            int maxSize = this.maxPartnerSize(size);
+
+            for (int i = 0; i < this.prefixLength(size); i++) {
+                int rank = record[i];
+                int end = offsets[rank + 1];
+                while (starts[rank] < end && records2[postingRecords[starts[rank]]].length < minSize)
+                    starts[rank]++;
+
+                for (int posting = starts[rank]; posting < end; posting++) {
+                    int s = postingRecords[posting];
+                    int partnerSize = records2[s].length;
+                    if (partnerSize > maxSize)
+                        break;
+                    if ((self && s <= r) || overlaps[s] == PRUNED)
+                        continue;
+                    if (overlaps[s] == 0)
+                        candidates.add(s);
+
+                    // Positional filter: the overlap is at most the overlap so far plus the tokens after both positions
+                    int maxOverlap = overlaps[s] + 1 + Math.min(size - i - 1, partnerSize - postingPositions[posting] - 1);
+                    overlaps[s] = (maxOverlap < this.minOverlap(size, partnerSize)) ? PRUNED : overlaps[s] + 1;
+                }
+            }
+
+            for (int s : candidates) {
+                if (overlaps[s] != PRUNED) {
+                    double similarity = this.similarity(size, records2[s].length, overlap(record, records2[s]));
+                    if (similarity >= this.threshold)
+                        pairs.add(new SimilarPair(r, s, similarity));
+                }
+                overlaps[s] = 0;
+            }
+            candidates.clear();
+        }
+    }
+
+    private static int[] sizeOrder(int[][] records) {
+        int[] order = new int[records.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        IntArrays.stableSort(order, (a, b) -> Integer.compare(records[a].length, records[b].length));
+        return order;
+    }
+
+    private static int overlap(int[] record1, int[] record2) {
+        int overlap = 0;
+        int i = 0, j = 0;
+        while (i < record1.length && j < record2.length) {
+            if (record1[i] < record2[j]) {
+                i++;
+            } else if (record1[i] > record2[j]) {
+                j++;
+            } else {
+                overlap++;
+                i++;
+                j++;
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * Calculates the Jaccard similarity from the sizes and the overlap, i.e., exactly as Jaccard does on profiles.
+     */
+    private double similarity(int size1, int size2, int overlap) {
+        int union = this.bagSemantics ? size1 + size2 : size1 + size2 - overlap;
+        return (union == 0) ? 1.0 : (double) overlap / union;
+    }
+
+    /**
+     * The minimum overlap of two records of the sizes to reach the threshold: o / (x + y - o) >= t for set semantics
+     * and o / (x + y) >= t for bag semantics.
+     */
+    private int minOverlap(int size1, int size2) {
+        double factor = this.bagSemantics ? this.threshold : this.threshold / (1 + this.threshold);
+        return (int) Math.ceil(factor * (size1 + size2) - EPSILON);
+    }
+
+    /**
+     * The minimum size of a partner of a record of the size; the overlap is at most the smaller size.
+     */
+    private int minPartnerSize(int size) {
+        if (!this.bagSemantics)
+            return (int) Math.ceil(this.threshold * size - EPSILON);
+        if (this.threshold >= 1)
+            return Integer.MAX_VALUE;
+        return (int) Math.ceil(this.threshold * size / (1 - this.threshold) - EPSILON);
+    }
+
+    /**
+     * The maximum size of a partner of a record of the size; the overlap is at most the smaller size.
+     */
+    private int maxPartnerSize(int size) {
+        double maxSize = this.bagSemantics ? size * (1 - this.threshold) / this.threshold : size / this.threshold;
+        return (int) Math.min(Integer.MAX_VALUE, Math.floor(maxSize + EPSILON));
+    }
+
+    /**
+     * The prefix of a record that must contain a token of every partner: a record of size x with the minimum overlap
+     * o shares a token within its first x - o + 1 tokens with the partner. The smallest partner needs the smallest
+     * overlap, which determines the prefix that suits all partners.
+     */
+    private int prefixLength(int size) {
+        long minSize = this.minPartnerSize(size);
+        if (minSize > this.maxPartnerSize(size))
+            return 0;
+        int minOverlap = this.minOverlap(size, (int) minSize);
+        return Math.max(0, Math.min(size, size - minOverlap + 1));
+    }
+}
@@ -5,4 +5,60 @@ public interface SimilarityMeasure {
     double calculate(final String string1, final String string2);
 
     double calculate(final String[] strings1, final String[] strings2);
+
+    /**
+     * Calculates the similarities of one query string to many candidate strings. Implementations prepare the query,
+     * e.g., its tokens or match vectors, only once for all candidates; see the range variant.
+     * @param query The string that is compared to all candidates.
+     * @param candidates The strings to which the query is compared.
+     * @return The similarities of the query to the candidates in the order of the candidates.
+     */
+    default double[] calculateAll(final String query, final String[] candidates) {
+        return this.calculateAll(query, candidates, 0, candidates.length);
+    }
+
+    /**
+     * Calculates the similarities of one query string to the candidate strings in the range [from, to), such that a
+     * part of a candidate array can be compared without copying it. Implementations prepare the query only once for
+     * all candidates; the default compares the pairs one by one.
+     * @param query The string that is compared to the candidates.
+     * @param candidates The strings to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The similarities of the query to the candidates in the range, i.e., [i] belongs to candidates[from + i].
+     */
+    default double[] calculateAll(final String query, final String[] candidates, final int from, final int to) {
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = this.calculate(query, candidates[from + i]);
+        return similarities;
+    }
+
+    /**
+     * Calculates the similarities of one query string list to many candidate string lists, e.g., of one column to all
+     * columns of another relation. Implementations prepare the query only once for all candidates; see the range
+     * variant.
+     * @param query The string list that is compared to all candidates.
+     * @param candidates The string lists to which the query is compared.
+     * @return The similarities of the query to the candidates in the order of the candidates.
+     */
+    default double[] calculateAll(final String[] query, final String[][] candidates) {
+        return this.calculateAll(query, candidates, 0, candidates.length);
+    }
+
+    /**
+     * Calculates the similarities of one query string list to the candidate string lists in the range [from, to).
+     * Implementations prepare the query only once for all candidates; the default compares the pairs one by one.
+     * @param query The string list that is compared to the candidates.
+     * @param candidates The string lists to which the query is compared.
+     * @param from The index of the first candidate, inclusive.
+     * @param to The index of the last candidate, exclusive.
+     * @return The similarities of the query to the candidates in the range, i.e., [i] belongs to candidates[from + i].
+     */
+    default double[] calculateAll(final String[] query, final String[][] candidates, final int from, final int to) {
+        double[] similarities = new double[to - from];
+        for (int i = 0; i < similarities.length; i++)
+            similarities[i] = this.calculate(query, candidates[from + i]);
+        return similarities;
+    }
 }
@@ -0,0 +1,180 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.MinHashSignatures;
+import de.di.similarity_measures.structures.SimilarPair;
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A BandedLSHIndex finds the candidate pairs of many MinHash signatures without comparing all pairs. The first
+ * numBands * numRows components of every signature are cut into numBands bands of numRows components, and two
+ * records become a candidate pair if their signatures agree in all components of at least one band. Two records with
+ * Jaccard similarity s become candidates with probability 1 - (1 - s^numRows)^numBands, an S-curve whose steepest
+ * point, the threshold, lies at about (1 / numBands)^(1 / numRows); forThreshold() derives both parameters from a
+ * desired threshold. The records of a band are grouped into their buckets by sorting the hashes of their bands, which
+ * needs one long and one int per record instead of a hash table of bucket lists. The pairs of every band are merged
+ * into the distinct pairs of the previous bands right away, so memory grows with the number of distinct candidates.
+ * Buckets with more than maxBucketSize records, e.g., of many equal values, report only the pairs of their adjacent
+ * records in index order, a chain that a transitive closure of the duplicates can still complete.
+ */
+@Getter
+public class BandedLSHIndex {
+
+    // The number of bands; more bands find more candidates.
+    private final int numBands;
+
+    // The number of signature components per band; more rows find fewer candidates.
+    private final int numRows;
+
+    // The default maximum bucket size, which bounds the pairs of a single bucket to about half a million.
+    public static final int DEFAULT_MAX_BUCKET_SIZE = 1000;
+
+    // The maximum number of records of a bucket whose pairs are all reported; larger buckets, e.g., of many equal or
+    // empty values, report only the pairs of adjacent records because their number of pairs grows quadratically.
+    private int maxBucketSize = DEFAULT_MAX_BUCKET_SIZE;
+
+    // The number of buckets over all bands of the last candidatePairs() call that exceeded the maximum bucket size.
+    private int numOversizedBuckets = 0;
+
+    public BandedLSHIndex(final int numBands, final int numRows) {
+        if (numBands < 1 || numRows < 1)
+            throw new IllegalArgumentException("The numbers of bands and rows must be positive, but are " + numBands + " and " + numRows + ".");
+        this.numBands = numBands;
+        this.numRows = numRows;
+    }
+
+    /**
+     * Creates the index whose threshold is closest to the desired threshold among all indexes that fit into the
+     * signature length; ties are broken in favor of more used components, which make the S-curve steeper.
+     * @param threshold The desired Jaccard similarity threshold in (0, 1).
+     * @param signatureLength The number of components of the signatures that will be indexed.
+     * @return The index for the threshold.
+     */
+    public static BandedLSHIndex forThreshold(final double threshold, final int signatureLength) {
+        if (threshold <= 0 || threshold >= 1)
+            throw new IllegalArgumentException("The threshold must be in (0, 1), but is " + threshold + ".");
+
+        int bestBands = 1, bestRows = 1;
+        double bestError = Double.MAX_VALUE;
+        for (int bands = 1; bands <= signatureLength; bands++) {
+            for (int rows = 1; bands * rows <= signatureLength; rows++) {
+                double error = Math.abs(threshold(bands, rows) - threshold);
+                if (error < bestError - 1e-9 || (error < bestError + 1e-9 && bands * rows > bestBands * bestRows)) {
+                    bestBands = bands;
+                    bestRows = rows;
+                    bestError = error;
+                }
+            }
+        }
+        return new BandedLSHIndex(bestBands, bestRows);
+    }
+
+    /**
+     * Sets the maximum number of records of a bucket whose pairs are all reported. Larger buckets report only the
+     * pairs of their adjacent records in index order; Integer.MAX_VALUE reports all pairs of all buckets.
+     * @param maxBucketSize The maximum bucket size, which must be at least 2.
+     */
+    public void setMaxBucketSize(final int maxBucketSize) {
+        if (maxBucketSize < 2)
+            throw new IllegalArgumentException("The maximum bucket size must be at least 2, but is " + maxBucketSize + ".");
+        this.maxBucketSize = maxBucketSize;
+    }
+
+    private static double threshold(int bands, int rows) {
+        return Math.pow(1.0 / bands, 1.0 / rows);
+    }
+
+    /**
+     * Returns the approximate Jaccard similarity from which on two records likely become a candidate pair.
+     * @return The threshold of this index.
+     */
+    public double getThreshold() {
+        return threshold(this.numBands, this.numRows);
+    }
+
+    /**
+     * Finds all pairs of records whose signatures agree in at least one band; of buckets that exceed the maximum
+     * bucket size, only the pairs of adjacent records are reported and counted in numOversizedBuckets.
+     * @param signatures The signatures of the records, which must have at least numBands * numRows components.
+     * @return The candidate pairs with their estimated Jaccard similarities, sorted by their indexes and each with
+     * index1 < index2.
+     */
+    public List<SimilarPair> candidatePairs(final MinHashSignatures signatures) {
+        if (signatures.getSignatureLength() < this.numBands * this.numRows)
+            throw new IllegalArgumentException("The signatures have " + signatures.getSignatureLength() + " components, but the index needs " + this.numBands * this.numRows + ".");
+
+        int numRecords = signatures.getNumSignatures();
+        long[] keys = new long[numRecords];
+        int[] order = new int[numRecords];
+        LongArrayList bandPairs = new LongArrayList();
+        long[] pairs = new long[0];
+        this.numOversizedBuckets = 0;
+        for (int band = 0; band < this.numBands; band++) {
+            for (int i = 0; i < numRecords; i++) {
+                long key = band;
+                for (int row = band * this.numRows; row < (band + 1) * this.numRows; row++)
+                    key = TokenProfile.mix(key * 31 + signatures.get(i, row));
+                keys[i] = key;
+                order[i] = i;
+            }
+            IntArrays.quickSort(order, (a, b) -> {
+                int comparison = Long.compare(keys[a], keys[b]);
+                return (comparison != 0) ? comparison : Integer.compare(a, b);
+            });
+
+            // Every run of equal keys is a bucket, whose records are in index order; the pairs are encoded as
+            // (index1 << 32 | index2) with index1 < index2
+            bandPairs.clear();
+            for (int start = 0, end; start < numRecords; start = end) {
+                end = start + 1;
+                while (end < numRecords && keys[order[end]] == keys[order[start]])
+                    end++;
+                if (end - start > this.maxBucketSize) {
+                    this.numOversizedBuckets++;
+                    for (int i = start + 1; i < end; i++)
+                        bandPairs.add(((long) order[i - 1] << 32) | order[i]);
+                    continue;
+                }
+                for (int i = start; i < end; i++)
+                    for (int j = i + 1; j < end; j++)
+                        bandPairs.add(((long) order[i] << 32) | order[j]);
+            }
+
+            // Pairs that share several bands are merged band by band, so that only the distinct pairs are kept
+            long[] sortedBandPairs = bandPairs.toLongArray();
+            Arrays.sort(sortedBandPairs);
+            pairs = mergeDistinct(pairs, sortedBandPairs);
+        }
+
+        List<SimilarPair> candidates = new ArrayList<>(pairs.length);
+        for (long pair : pairs) {
+            int index1 = (int) (pair >>> 32);
+            int index2 = (int) pair;
+            candidates.add(new SimilarPair(index1, index2, signatures.similarity(index1, index2)));
+        }
+        return candidates;
+    }
+
+    /**
+     * Merges two sorted arrays into one sorted array without duplicates.
+     * @param distinct A sorted array without duplicates.
+     * @param sorted A sorted array, which may contain duplicates.
+     * @return The sorted, distinct values of both arrays.
+     */
+    private static long[] mergeDistinct(long[] distinct, long[] sorted) {
+        long[] merged = new long[distinct.length + sorted.length];
+        int size = 0;
+        for (int i = 0, j = 0; i < distinct.length || j < sorted.length; ) {
+            long next = (j == sorted.length || (i < distinct.length && distinct[i] <= sorted[j])) ? distinct[i++] : sorted[j++];
+            if (size == 0 || merged[size - 1] != next)
+                merged[size++] = next;
+        }
+        return (size == merged.length) ? merged : Arrays.copyOf(merged, size);
+    }
+}
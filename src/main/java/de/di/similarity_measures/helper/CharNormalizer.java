@@ -0,0 +1,34 @@
+package de.di.similarity_measures.helper;
+
+import java.text.Normalizer;
+
+/**
+ * Normalizes single characters by lower-casing them and stripping their accents, e.g., 'Ä' to 'a'. The accent
+ * stripping covers the Latin-1 Supplement and the Latin Extended-A and -B blocks with a pre-computed table, so that
+ * normalizing a character is a lookup and tokenization strategies can normalize while they scan a string.
+ */
+final class CharNormalizer {
+
+    // The normalized character of every character below TABLE_SIZE.
+    private static final int TABLE_SIZE = 0x250;
+    private static final char[] TABLE = new char[TABLE_SIZE];
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            // The canonical decomposition separates a base letter from its combining accents
+            String decomposed = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+            char base = decomposed.charAt(0);
+            boolean accented = decomposed.length() > 1;
+            for (int i = 1; i < decomposed.length(); i++)
+                accented &= Character.getType(decomposed.charAt(i)) == Character.NON_SPACING_MARK;
+            TABLE[c] = Character.toLowerCase(accented ? base : (char) c);
+        }
+    }
+
+    private CharNormalizer() {
+    }
+
+    static char normalize(char c) {
+        return (c < TABLE_SIZE) ? TABLE[c] : Character.toLowerCase(c);
+    }
+}
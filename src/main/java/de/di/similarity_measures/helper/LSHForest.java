@@ -0,0 +1,314 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.SimilarRecord;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An LSHForest answers top-k queries over MinHash signatures without scanning all records (Bawa et al., LSH Forest).
+ * Each of its trees labels a record with MAX_DEPTH consecutive signature components, one byte per component, so that
+ * two records share a label prefix of depth d with probability s^d for a Jaccard similarity s. A query descends all
+ * trees to its deepest label prefix and then widens the prefixes level by level in all trees at once, taking the
+ * candidates of a level from the trees in turns, until it has collected enough candidates; the candidates are ranked by
+ * their estimated similarities to the query. More candidates per query increase the recall at the cost of time; at
+ * depth 0, a query has seen all records.
+ * A tree is a sorted array of labels, in which every prefix is a contiguous range; inserts go to a small unsorted
+ * buffer that is merged into the sorted array once it exceeds about the square root of the tree size, so that records
+ * can be inserted incrementally while the forest is queried. The forest is safe to use from many threads.
+ */
+public class LSHForest {
+
+    // The number of signature components per label, each of which is reduced to one byte of a long label.
+    public static final int MAX_DEPTH = 8;
+
+    // The minimum number of buffered inserts before a buffer is merged into its tree.
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    // The number of components of the indexed signatures.
+    @Getter
+    private final int signatureLength;
+
+    // The trees of the forest; tree t labels records with the components [t * MAX_DEPTH, (t + 1) * MAX_DEPTH).
+    private final Tree[] trees;
+
+    // The components of all inserted signatures; the signature of record i occupies [i * signatureLength, (i + 1) * signatureLength).
+    private final IntArrayList signatures = new IntArrayList();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LSHForest(final int signatureLength, final int numTrees) {
+        if (numTrees < 1 || numTrees * MAX_DEPTH > signatureLength)
+            throw new IllegalArgumentException("The signatures have " + signatureLength + " components, but " + numTrees + " trees need " + numTrees * MAX_DEPTH + ".");
+        this.signatureLength = signatureLength;
+        this.trees = new Tree[numTrees];
+        for (int i = 0; i < numTrees; i++)
+            this.trees[i] = new Tree();
+    }
+
+    public LSHForest(final int signatureLength) {
+        this(signatureLength, signatureLength / MAX_DEPTH);
+    }
+
+    public int getNumTrees() {
+        return this.trees.length;
+    }
+
+    /**
+     * Returns the number of records in the forest.
+     * @return The number of inserted signatures.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.signatures.size() / this.signatureLength;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the signature of the next record.
+     * @param signature The signature of the record, e.g., as produced by LocalitySensitiveHashing.signature().
+     * @return The index of the record, i.e., the number of records that were inserted before.
+     */
+    public int insert(final int[] signature) {
+        this.checkLength(signature);
+        this.lock.writeLock().lock();
+        try {
+            int index = this.signatures.size() / this.signatureLength;
+            this.signatures.addElements(this.signatures.size(), signature, 0, this.signatureLength);
+            for (int t = 0; t < this.trees.length; t++)
+                this.trees[t].insert(label(signature, t), index);
+            return index;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the k records that are most similar to the query with 10 * k candidates, but at least two per tree.
+     * @param signature The signature of the query.
+     * @param k The number of records to find.
+     * @return At most k similar records in the order of decreasing estimated similarity.
+     */
+    public List<SimilarRecord> query(final int[] signature, final int k) {
+        checkK(k);
+        return this.query(signature, k, Math.max(10 * k, 2 * this.trees.length));
+    }
+
+    /**
+     * Finds the k records that are most similar to the query. The query collects candidates from the deepest label
+     * prefixes of all trees until it has numCandidates of them, and ranks the candidates by their estimated
+     * similarities to the query.
+     * @param signature The signature of the query.
+     * @param k The number of records to find.
+     * @param numCandidates The minimum number of candidates, which trades time for recall; at least k.
+     * @return At most k similar records in the order of decreasing estimated similarity.
+     */
+    public List<SimilarRecord> query(final int[] signature, final int k, final int numCandidates) {
+        checkK(k);
+        this.checkLength(signature);
+        this.lock.readLock().lock();
+        try {
+            long[] labels = new long[this.trees.length];
+            int[][] bufferDepths = new int[this.trees.length][];
+            for (int t = 0; t < this.trees.length; t++) {
+                labels[t] = label(signature, t);
+                bufferDepths[t] = this.trees[t].bufferDepths(labels[t]);
+            }
+
+            // Widen the prefixes of all trees synchronously and take the records of a level from the trees in turns,
+            // so that no tree dominates the candidates; because every level widens the ranges by a factor of 256,
+            // the last level stops as soon as there are enough candidates
+            int limit = Math.max(k, numCandidates);
+            IntOpenHashSet candidates = new IntOpenHashSet();
+            Level[] levels = new Level[this.trees.length];
+            for (int depth = MAX_DEPTH; depth >= 0 && candidates.size() < limit; depth--) {
+                for (int t = 0; t < this.trees.length; t++)
+                    levels[t] = this.trees[t].level(labels[t], depth, bufferDepths[t]);
+                boolean remaining = true;
+                while (remaining && candidates.size() < limit) {
+                    remaining = false;
+                    for (int t = 0; t < this.trees.length && candidates.size() < limit; t++)
+                        remaining |= levels[t].collectNext(candidates);
+                }
+            }
+
+            int[] indexes = candidates.toIntArray();
+            double[] similarities = new double[indexes.length];
+            for (int i = 0; i < indexes.length; i++)
+                similarities[i] = this.similarity(signature, indexes[i]);
+            int[] order = new int[indexes.length];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            IntArrays.quickSort(order, (a, b) -> {
+                int comparison = Double.compare(similarities[b], similarities[a]);
+                return (comparison != 0) ? comparison : Integer.compare(indexes[a], indexes[b]);
+            });
+
+            List<SimilarRecord> result = new ArrayList<>(Math.min(k, order.length));
+            for (int i = 0; i < Math.min(k, order.length); i++)
+                result.add(new SimilarRecord(indexes[order[i]], similarities[order[i]]));
+            return result;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private double similarity(int[] signature, int index) {
+        int offset = index * this.signatureLength;
+        int matchCount = 0;
+        for (int i = 0; i < this.signatureLength; i++)
+            if (signature[i] == this.signatures.getInt(offset + i))
+                matchCount++;
+        return (double) matchCount / this.signatureLength;
+    }
+
+    private static void checkK(int k) {
+        if (k <= 0)
+            throw new IllegalArgumentException("The number of records to find must be positive, but is " + k + ".");
+    }
+
+    private void checkLength(int[] signature) {
+        if (signature.length != this.signatureLength)
+            throw new IllegalArgumentException("The signature has " + signature.length + " components, but the forest indexes " + this.signatureLength + ".");
+    }
+
+    private static long label(int[] signature, int tree) {
+        // The first component becomes the most significant byte, so that label prefixes are contiguous ranges
+        long label = 0;
+        for (int i = tree * MAX_DEPTH; i < (tree + 1) * MAX_DEPTH; i++)
+            label = (label << 8) | (signature[i] & 0xFF);
+        return label;
+    }
+
+    private static long prefixMask(int depth) {
+        return (depth == 0) ? 0 : -1L << (8 * (MAX_DEPTH - depth));
+    }
+
+    private static int commonDepth(long label1, long label2) {
+        return Long.numberOfLeadingZeros(label1 ^ label2) / 8;
+    }
+
+    /**
+     * A tree of the forest: the labels and record indexes in the order of the labels, and a buffer of recent inserts.
+     */
+    private static class Tree {
+
+        private long[] labels = new long[0];
+        private int[] indexes = new int[0];
+        private final IntArrayList bufferIndexes = new IntArrayList();
+        private long[] bufferLabels = new long[MIN_BUFFER_SIZE];
+
+        void insert(long label, int index) {
+            int position = this.bufferIndexes.size();
+            if (position == this.bufferLabels.length)
+                this.bufferLabels = Arrays.copyOf(this.bufferLabels, 2 * position);
+            this.bufferLabels[position] = label;
+            this.bufferIndexes.add(index);
+            if (this.bufferIndexes.size() > Math.max(MIN_BUFFER_SIZE, (int) Math.sqrt(this.labels.length)))
+                this.merge();
+        }
+
+        private void merge() {
+            int numBuffered = this.bufferIndexes.size();
+            int[] order = new int[numBuffered];
+            for (int i = 0; i < numBuffered; i++)
+                order[i] = i;
+            long[] buffered = this.bufferLabels;
+            IntArrays.quickSort(order, (a, b) -> Long.compareUnsigned(buffered[a], buffered[b]));
+
+            long[] labels = new long[this.labels.length + numBuffered];
+            int[] indexes = new int[labels.length];
+            int i = 0, j = 0;
+            for (int position = 0; position < labels.length; position++) {
+                if (j == numBuffered || (i < this.labels.length && Long.compareUnsigned(this.labels[i], buffered[order[j]]) <= 0)) {
+                    labels[position] = this.labels[i];
+                    indexes[position] = this.indexes[i++];
+                } else {
+                    labels[position] = buffered[order[j]];
+                    indexes[position] = this.bufferIndexes.getInt(order[j++]);
+                }
+            }
+            this.labels = labels;
+            this.indexes = indexes;
+            this.bufferIndexes.clear();
+        }
+
+        int[] bufferDepths(long label) {
+            int[] depths = new int[this.bufferIndexes.size()];
+            for (int i = 0; i < depths.length; i++)
+                depths[i] = commonDepth(label, this.bufferLabels[i]);
+            return depths;
+        }
+
+        Level level(long label, int depth, int[] bufferDepths) {
+            // The records whose labels share the prefix of the given depth form the range [from, to) of the tree
+            long mask = prefixMask(depth);
+            long last = label | ~mask;
+            int from = this.lowerBound(label & mask);
+            int to = (last == -1L) ? this.labels.length : this.lowerBound(last + 1);
+            return new Level(this, depth, bufferDepths, from, to);
+        }
+
+        private int lowerBound(long label) {
+            // The position of the first label that is not smaller than the given label in unsigned order
+            int low = 0, high = this.labels.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (Long.compareUnsigned(this.labels[middle], label) < 0)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The records of a tree whose labels share the query's label prefix of some depth, i.e., the matching buffered
+     * inserts and the range [position, to) of the tree, which a query takes as candidates one by one.
+     */
+    private static class Level {
+
+        private final Tree tree;
+        private final int depth;
+        private final int[] bufferDepths;
+        private int bufferPosition = 0;
+        private int position;
+        private final int to;
+
+        Level(Tree tree, int depth, int[] bufferDepths, int from, int to) {
+            this.tree = tree;
+            this.depth = depth;
+            this.bufferDepths = bufferDepths;
+            this.position = from;
+            this.to = to;
+        }
+
+        /**
+         * Adds the next record of this level that is not a candidate yet, skipping the records that are.
+         * @param candidates The candidates of the query.
+         * @return false if this level has no more records.
+         */
+        boolean collectNext(IntOpenHashSet candidates) {
+            while (this.bufferPosition < this.bufferDepths.length) {
+                int i = this.bufferPosition++;
+                if (this.bufferDepths[i] >= this.depth && candidates.add(this.tree.bufferIndexes.getInt(i)))
+                    return true;
+            }
+            while (this.position < this.to)
+                if (candidates.add(this.tree.indexes[this.position++]))
+                    return true;
+            return false;
+        }
+    }
+}
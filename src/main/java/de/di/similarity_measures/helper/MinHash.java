@@ -1,7 +1,6 @@
 package de.di.similarity_measures.helper;
 
-import it.unimi.dsi.fastutil.chars.Char2IntAVLTreeMap;
-import it.unimi.dsi.fastutil.chars.Char2IntMap;
+import de.di.similarity_measures.structures.TokenProfile;
 
 import java.util.Comparator;
 import java.util.Random;
@@ -9,10 +8,48 @@ import java.util.stream.Stream;
 
 public class MinHash {
 
+    // The number of chars whose ranks are looked up in a table by the Unicode variant, i.e., all ISO-8859-1 chars
+    private static final int UNICODE_TABLE_SIZE = 256;
+
     // The comparator for the MinHashing; the comparator defines the sortation for this token-based minhash function
     private final Comparator<String> comparator;
 
+    // The salt that turns the bijective hash mixing into the random permutation of this minhash function for token codes
+    private final long salt;
+
+    // The rank of every char below the table size in the random order of this minhash function
+    private final int[] ranks;
+
+    // The choice of whether all chars are ranked by hashing or only the ASCII chars by a shuffled universe
+    private final boolean unicode;
+
     public MinHash(long seed) {
+        this(seed, false);
+    }
+
+    /**
+     * Creates a minhash function that orders tokens by a random order of their chars. The ASCII variant shuffles a
+     * universe of the 128 ASCII chars and ranks all other chars like the first char of that universe, so that tokens
+     * that differ only in non-ASCII chars, e.g., umlauts and accents, collapse to the same rank. The Unicode variant
+     * ranks every char by a seeded hash instead, which orders arbitrary chars randomly; the ranks of the ISO-8859-1
+     * chars are pre-computed, so that ranking them is a table lookup like in the ASCII variant. Chars with colliding
+     * hashes are ordered by their code, so that distinct tokens never tie. Surrogate pairs are ranked char by char,
+     * which still orders all code points consistently.
+     * @param seed The seed of the random order.
+     * @param unicode The choice of whether the Unicode or the ASCII variant should be created.
+     */
+    public MinHash(long seed, boolean unicode) {
+        this.salt = TokenProfile.mix(seed + 0x9E3779B97F4A7C15L);
+        this.unicode = unicode;
+
+        if (unicode) {
+            this.ranks = new int[UNICODE_TABLE_SIZE];
+            for (int c = 0; c < UNICODE_TABLE_SIZE; c++)
+                this.ranks[c] = this.hashRank((char) c);
+            this.comparator = this.createComparator();
+            return;
+        }
+
         // Create universe off all ASCI chars
         char[] universe = new char[128];
         for (int i = 0; i < 128; i++)
@@ -28,12 +65,12 @@ public class MinHash {
         }
 
         // Hash chars to positions in universe for faster sorting
-        Char2IntMap charIndex = new Char2IntAVLTreeMap();
+        this.ranks = new int[128];
         for (int i = 0; i < 128; i++)
-            charIndex.put(universe[i], i);
+            this.ranks[universe[i]] = i;
 
         // Create a comparator for our randomized universe
-        this.comparator = this.createComparatorFor(charIndex);
+        this.comparator = this.createComparator();
     }
 
     public String hash(final String[] strings) {
@@ -45,17 +82,48 @@ public class MinHash {
                 .orElseThrow();
     }
 
-    private Comparator<String> createComparatorFor(Char2IntMap charIndex) {
+    /**
+     * Calculates the minhash of encoded tokens, e.g., as produced by Tokenizer.encode(), i.e., the minimum of the token
+     * codes under the random permutation of this minhash function. Unlike the string variant, no token is compared
+     * character by character.
+     * @param codes The token codes.
+     * @param numCodes The number of token codes in the array, which may be larger.
+     * @return The minhash of the token codes; Long.MAX_VALUE if there are no codes.
+     */
+    public long hash(final long[] codes, final int numCodes) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < numCodes; i++)
+            min = Math.min(min, TokenProfile.mix(codes[i] ^ this.salt));
+        return min;
+    }
+
+    private int hashRank(char c) {
+        return (int) (TokenProfile.mix(c ^ this.salt) >>> 33);
+    }
+
+    private int rank(char c) {
+        if (c < this.ranks.length)
+            return this.ranks[c];
+        return this.unicode ? this.hashRank(c) : 0;
+    }
+
+    private Comparator<String> createComparator() {
         return (o1, o2) -> {
             if (o1.equals(o2))
                 return 0;
 
             // Compare strings character-wise w.r.t. our universe
             for (int i = 0; i < Math.min(o1.length(), o2.length()); i++) {
-                int index1 = charIndex.get(o1.charAt(i));
-                int index2 = charIndex.get(o2.charAt(i));
+                char c1 = o1.charAt(i);
+                char c2 = o2.charAt(i);
+                if (c1 == c2)
+                    continue;
+                int index1 = this.rank(c1);
+                int index2 = this.rank(c2);
                 if (index1 != index2)
-                    return index1 - index2;
+                    return Integer.compare(index1, index2);
+                if (this.unicode)
+                    return Character.compare(c1, c2);
             }
 
             // If the strings have same prefixes, take the longer one as minimum;
@@ -63,4 +131,4 @@ public class MinHash {
             return o2.length() - o1.length();
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package de.di.similarity_measures.helper;
+
+/**
+ * A MinHashScheme calculates numeric MinHash signatures of token hashes, e.g., as produced by Tokenizer.encode(). The
+ * probability that the signatures of two token sets agree in a component approximates the Jaccard similarity of the
+ * two sets, so that the fraction of agreeing components estimates it; see similarity().
+ */
+public interface MinHashScheme {
+
+    /**
+     * Returns the number of components of the signatures of this scheme.
+     * @return The signature length.
+     */
+    int getSignatureLength();
+
+    /**
+     * Calculates the signature of the provided token hashes. Duplicate hashes do not change the signature, i.e., the
+     * signature reflects set semantics.
+     * @param codes The token hashes.
+     * @param numCodes The number of token hashes in the array, which may be larger.
+     * @return The signature of the token hashes; all components are Integer.MAX_VALUE if there are no tokens.
+     */
+    int[] signature(long[] codes, int numCodes);
+
+    /**
+     * Estimates the Jaccard similarity of two token sets by the fraction of the components in which their signatures
+     * agree.
+     * @param signature1 The first signature.
+     * @param signature2 The second signature, which must have the same length.
+     * @return The estimated Jaccard similarity.
+     */
+    static double similarity(final int[] signature1, final int[] signature2) {
+        int matchCount = 0;
+        for (int i = 0; i < signature1.length; i++)
+            if (signature1[i] == signature2[i])
+                matchCount++;
+        return (double) matchCount / signature1.length;
+    }
+}
@@ -0,0 +1,71 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.TokenProfile;
+
+import java.util.Arrays;
+
+/**
+ * A OnePermutationMinHash calculates numeric MinHash signatures with a single hash function in one pass over the
+ * tokens: the hash of a token selects one of k bins and the component of that bin keeps the minimum hash of its
+ * tokens, so that a signature costs O(tokens + k) instead of O(tokens * k). Bins that received no token, which is
+ * likely for small token sets, are filled by optimal densification, i.e., an empty bin copies the component of a
+ * non-empty bin that a hash of its position and the attempt number selects. Because the probing only depends on the
+ * positions, two sets that leave the same bin empty probe the same bins, which keeps the estimate unbiased.
+ */
+public class OnePermutationMinHash implements MinHashScheme {
+
+    // The number of bins, i.e., of signature components.
+    private final int numBins;
+
+    // The seed of the token hash function and of the densification probes.
+    private final long seed;
+
+    public OnePermutationMinHash(final int numBins, final long seed) {
+        if (numBins < 1)
+            throw new IllegalArgumentException("The number of bins must be positive, but is " + numBins + ".");
+        this.numBins = numBins;
+        this.seed = TokenProfile.mix(seed + 0x9E3779B97F4A7C15L);
+    }
+
+    @Override
+    public int getSignatureLength() {
+        return this.numBins;
+    }
+
+    @Override
+    public int[] signature(final long[] codes, final int numCodes) {
+        int[] signature = new int[this.numBins];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (numCodes == 0)
+            return signature;
+
+        // The high 32 bits of a token hash select its bin and the low 31 bits are its value within the bin
+        long[] filled = new long[(this.numBins + 63) >>> 6];
+        for (int t = 0; t < numCodes; t++) {
+            long hash = TokenProfile.mix(codes[t] ^ this.seed);
+            int bin = this.bin(hash);
+            int value = (int) (hash & Integer.MAX_VALUE);
+            if (value < signature[bin])
+                signature[bin] = value;
+            filled[bin >>> 6] |= 1L << bin;
+        }
+
+        for (int bin = 0; bin < this.numBins; bin++) {
+            if ((filled[bin >>> 6] & (1L << bin)) != 0)
+                continue;
+            for (long attempt = 1; ; attempt++) {
+                int probe = this.bin(TokenProfile.mix(this.seed + bin * 0xC2B2AE3D27D4EB4FL + attempt));
+                if ((filled[probe >>> 6] & (1L << probe)) != 0) {
+                    signature[bin] = signature[probe];
+                    break;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private int bin(long hash) {
+        // Maps the high 32 bits uniformly to [0, numBins) without a division
+        return (int) (((hash >>> 32) * this.numBins) >>> 32);
+    }
+}
@@ -0,0 +1,241 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.SimilarityMeasure;
+import de.di.similarity_measures.structures.SimilarPair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A ParallelSimilarityMatrix calculates the similarities of all pairs of two value arrays with a SimilarityMeasure on
+ * multiple threads. The matrix is computed row by row: each row compares one value of the first array with all values
+ * of the second array in a single calculateAll() call, so the query of every row is prepared exactly once. Only if
+ * there are too few rows to keep all threads busy, e.g., for a single query, the rows are cut into a few wide column
+ * bands that are passed to calculateAll() as index ranges. The rows or bands are distributed by recursive halving on a
+ * fork-join pool, whose work stealing balances rows of very different costs, e.g., of long and short strings. With a
+ * threshold, only the pairs whose similarity reaches it are returned instead of the full matrix. The similarity measure
+ * must be thread-safe.
+ *
+ * The pool is reused for all calculations: by default, the common pool; a matrix that was created for a number of
+ * threads owns its pool and shuts it down on close().
+ */
+public class ParallelSimilarityMatrix implements AutoCloseable {
+
+    // The number of work units per thread, which balances the load if some rows are more expensive than others.
+    private static final int UNITS_PER_THREAD = 4;
+
+    // The minimum number of columns per band, so that the preparation of the query pays off within each band.
+    private static final int MIN_BAND_WIDTH = 64;
+
+    private final SimilarityMeasure similarityMeasure;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    public ParallelSimilarityMatrix(SimilarityMeasure similarityMeasure) {
+        this(similarityMeasure, ForkJoinPool.commonPool(), false);
+    }
+
+    public ParallelSimilarityMatrix(SimilarityMeasure similarityMeasure, int numThreads) {
+        this(similarityMeasure, new ForkJoinPool(Math.max(1, numThreads)), true);
+    }
+
+    public ParallelSimilarityMatrix(SimilarityMeasure similarityMeasure, ForkJoinPool pool) {
+        this(similarityMeasure, pool, false);
+    }
+
+    private ParallelSimilarityMatrix(SimilarityMeasure similarityMeasure, ForkJoinPool pool, boolean ownsPool) {
+        this.similarityMeasure = similarityMeasure;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Calculates the similarities of all pairs of strings.
+     * @param strings1 The strings that determine the first dimension of the matrix, i.e., double[*][].
+     * @param strings2 The strings that determine the second dimension of the matrix, i.e., double[][*].
+     * @return The matrix, in which [i][j] is the similarity of strings1[i] and strings2[j].
+     */
+    public double[][] calculate(String[] strings1, String[] strings2) {
+        return this.calculate(strings1.length, strings2.length, (row, from, to) ->
+                this.similarityMeasure.calculateAll(strings1[row], strings2, from, to));
+    }
+
+    /**
+     * Calculates the similarities of all pairs of string lists, e.g., of all columns of two relations.
+     * @param lists1 The string lists that determine the first dimension of the matrix, i.e., double[*][].
+     * @param lists2 The string lists that determine the second dimension of the matrix, i.e., double[][*].
+     * @return The matrix, in which [i][j] is the similarity of lists1[i] and lists2[j].
+     */
+    public double[][] calculate(String[][] lists1, String[][] lists2) {
+        return this.calculate(lists1.length, lists2.length, (row, from, to) ->
+                this.similarityMeasure.calculateAll(lists1[row], lists2, from, to));
+    }
+
+    /**
+     * Finds all pairs of strings whose similarity is at least the threshold without materializing the full matrix.
+     * @param strings1 The first strings; SimilarPair.index1 refers to them.
+     * @param strings2 The second strings; SimilarPair.index2 refers to them.
+     * @param threshold The minimum similarity of the returned pairs.
+     * @return The pairs whose similarity is at least the threshold, sorted by their indexes.
+     */
+    public List<SimilarPair> calculatePairs(String[] strings1, String[] strings2, double threshold) {
+        return this.calculatePairs(strings1.length, strings2.length, threshold, (row, from, to) ->
+                this.similarityMeasure.calculateAll(strings1[row], strings2, from, to));
+    }
+
+    /**
+     * Finds all pairs of string lists whose similarity is at least the threshold without materializing the full matrix.
+     * @param lists1 The first string lists; SimilarPair.index1 refers to them.
+     * @param lists2 The second string lists; SimilarPair.index2 refers to them.
+     * @param threshold The minimum similarity of the returned pairs.
+     * @return The pairs whose similarity is at least the threshold, sorted by their indexes.
+     */
+    public List<SimilarPair> calculatePairs(String[][] lists1, String[][] lists2, double threshold) {
+        return this.calculatePairs(lists1.length, lists2.length, threshold, (row, from, to) ->
+                this.similarityMeasure.calculateAll(lists1[row], lists2, from, to));
+    }
+
+    /**
+     * Shuts the pool down if this matrix owns it, i.e., if it was created for a number of threads.
+     */
+    @Override
+    public void close() {
+        if (this.ownsPool)
+            this.pool.shutdown();
+    }
+
+    /**
+     * Calculates the similarities of one value of the first array to a range of values of the second array.
+     */
+    private interface Row {
+        double[] calculate(int row, int from, int to);
+    }
+
+    /**
+     * Receives the similarities of one value of the first array to a range of values of the second array.
+     */
+    private interface RowConsumer {
+        void accept(int row, int from, double[] similarities);
+    }
+
+    private double[][] calculate(int numRows, int numColumns, Row row) {
+        double[][] matrix = new double[numRows][numColumns];
+        Banding banding = new Banding(numRows, numColumns, this.pool.getParallelism());
+        this.pool.invoke(new UnitAction(banding, 0, banding.numUnits(), row, (i, from, similarities) ->
+                System.arraycopy(similarities, 0, matrix[i], from, similarities.length)));
+        return matrix;
+    }
+
+    private List<SimilarPair> calculatePairs(int numRows, int numColumns, double threshold, Row row) {
+        Banding banding = new Banding(numRows, numColumns, this.pool.getParallelism());
+        List<SimilarPair> pairs = this.pool.invoke(new PairsTask(banding, 0, banding.numUnits(), threshold, row));
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    /**
+     * The cut of a matrix into work units, which are whole rows unless there are too few rows for the threads; then,
+     * every row is cut into the same number of column bands. Units are numbered row by row.
+     */
+    private static class Banding {
+
+        private final int numColumns;
+        private final int numBands;
+        private final int numUnits;
+
+        private Banding(int numRows, int numColumns, int numThreads) {
+            this.numColumns = numColumns;
+            long numTargetUnits = (long) numThreads * UNITS_PER_THREAD;
+            long numBands = (numRows == 0) ? 1 : (numTargetUnits + numRows - 1) / numRows;
+            this.numBands = (int) Math.max(1, Math.min(numBands, numColumns / MIN_BAND_WIDTH));
+            this.numUnits = numRows * this.numBands;
+        }
+
+        private int numUnits() {
+            return this.numUnits;
+        }
+
+        private void compute(int fromUnit, int toUnit, Row row, RowConsumer consumer) {
+            for (int unit = fromUnit; unit < toUnit; unit++) {
+                int i = unit / this.numBands;
+                int band = unit % this.numBands;
+                int from = (int) ((long) this.numColumns * band / this.numBands);
+                int to = (int) ((long) this.numColumns * (band + 1) / this.numBands);
+                consumer.accept(i, from, row.calculate(i, from, to));
+            }
+        }
+    }
+
+    private static class UnitAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Banding banding;
+        private final int fromUnit;
+        private final int toUnit;
+        private final Row row;
+        private final RowConsumer consumer;
+
+        private UnitAction(Banding banding, int fromUnit, int toUnit, Row row, RowConsumer consumer) {
+            this.banding = banding;
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+            this.row = row;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.toUnit - this.fromUnit <= 1) {
+                this.banding.compute(this.fromUnit, this.toUnit, this.row, this.consumer);
+                return;
+            }
+            int middle = (this.fromUnit + this.toUnit) >>> 1;
+            invokeAll(new UnitAction(this.banding, this.fromUnit, middle, this.row, this.consumer),
+                    new UnitAction(this.banding, middle, this.toUnit, this.row, this.consumer));
+        }
+    }
+
+    private static class PairsTask extends RecursiveTask<List<SimilarPair>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Banding banding;
+        private final int fromUnit;
+        private final int toUnit;
+        private final double threshold;
+        private final Row row;
+
+        private PairsTask(Banding banding, int fromUnit, int toUnit, double threshold, Row row) {
+            this.banding = banding;
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+            this.threshold = threshold;
+            this.row = row;
+        }
+
+        @Override
+        protected List<SimilarPair> compute() {
+            if (this.toUnit - this.fromUnit <= 1) {
+                List<SimilarPair> pairs = new ArrayList<>();
+                this.banding.compute(this.fromUnit, this.toUnit, this.row, (i, from, similarities) -> {
+                    for (int j = 0; j < similarities.length; j++)
+                        if (similarities[j] >= this.threshold)
+                            pairs.add(new SimilarPair(i, from + j, similarities[j]));
+                });
+                return pairs;
+            }
+            int middle = (this.fromUnit + this.toUnit) >>> 1;
+            PairsTask left = new PairsTask(this.banding, this.fromUnit, middle, this.threshold, this.row);
+            PairsTask right = new PairsTask(this.banding, middle, this.toUnit, this.threshold, this.row);
+            left.fork();
+            List<SimilarPair> pairs = right.compute();
+            pairs.addAll(left.join());
+            return pairs;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package de.di.similarity_measures.helper;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A ProfileCache keeps the pre-processed profiles of the most recently used strings, e.g., their token profiles or
+ * MinHash signatures, so that similarity measures do not tokenize and hash the same value over and over. The cache is
+ * bounded by a maximum number of entries and evicts the least recently used entries first. It is safe to use from
+ * many threads: the entries are spread over independently locked LRU segments, and the profile of a missing string
+ * is computed outside of any lock. The hit and miss counters help to size the cache for a workload.
+ * A cache must only be shared by similarity measures that calculate equal profiles, i.e., that use equal tokenizers.
+ * @param <V> The type of the cached profiles.
+ */
+public class ProfileCache<V> {
+
+    // The number of entries from which on the cache is split into segments to reduce lock contention.
+    private static final int MIN_SEGMENTED_SIZE = 1024;
+
+    // The number of segments of caches with at least MIN_SEGMENTED_SIZE entries; a power of two.
+    private static final int NUM_SEGMENTS = 16;
+
+    // The maximum number of entries of this cache.
+    @Getter
+    private final int maximumSize;
+
+    // The LRU segments, each of which holds at most its share of the maximum size.
+    private final Segment<V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ProfileCache(final int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("The maximum size must be positive, but is " + maximumSize + ".");
+        this.maximumSize = maximumSize;
+
+        int numSegments = (maximumSize < MIN_SEGMENTED_SIZE) ? 1 : NUM_SEGMENTS;
+        this.segments = (Segment<V>[]) new Segment<?>[numSegments];
+        for (int i = 0; i < numSegments; i++)
+            this.segments[i] = new Segment<>(maximumSize / numSegments + ((i < maximumSize % numSegments) ? 1 : 0), this.evictions);
+    }
+
+    /**
+     * Returns the cached profile of the provided string or computes, caches and returns it if the string is not cached.
+     * Two threads that miss the same string concurrently may both compute its profile; one of the two is cached.
+     * @param string The string whose profile is requested.
+     * @param profiler The function that computes the profile of a string.
+     * @return The profile of the string.
+     */
+    public V get(final String string, final Function<String, V> profiler) {
+        Segment<V> segment = this.segmentFor(string);
+        V profile;
+        synchronized (segment) {
+            profile = segment.get(string);
+        }
+        if (profile != null) {
+            this.hits.increment();
+            return profile;
+        }
+
+        this.misses.increment();
+        profile = profiler.apply(string);
+        synchronized (segment) {
+            V cached = segment.putIfAbsent(string, profile);
+            return (cached != null) ? cached : profile;
+        }
+    }
+
+    /**
+     * Removes all entries from this cache; the counters are kept.
+     */
+    public void clear() {
+        for (Segment<V> segment : this.segments)
+            synchronized (segment) {
+                segment.clear();
+            }
+    }
+
+    /**
+     * Returns the current number of entries of this cache.
+     * @return The number of cached profiles.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : this.segments)
+            synchronized (segment) {
+                size += segment.size();
+            }
+        return size;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of all lookups that were answered from the cache.
+     * @return The hit rate; 0 if the cache was not used yet.
+     */
+    public double hitRate() {
+        long hits = this.getHits();
+        long lookups = hits + this.getMisses();
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+    private Segment<V> segmentFor(String string) {
+        // Spread the higher bits of the hash code, because the segment is chosen by the lower bits
+        int hash = string.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d entries, %d hits, %d misses (hit rate %.3f), %d evictions",
+                this.size(), this.maximumSize, this.getHits(), this.getMisses(), this.hitRate(), this.getEvictions());
+    }
+
+    /**
+     * An access-ordered map that evicts its least recently used entry as soon as it exceeds its capacity.
+     */
+    private static class Segment<V> extends LinkedHashMap<String, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            if (this.size() <= this.capacity)
+                return false;
+            this.evictions.increment();
+            return true;
+        }
+    }
+}
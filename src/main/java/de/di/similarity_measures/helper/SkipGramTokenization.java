@@ -0,0 +1,63 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+
+/**
+ * Splits strings into character skip-grams, i.e., all pairs of characters that are at most maxSkip characters apart;
+ * with maxSkip = 0, the tokens are the plain bigrams. Skip-grams tolerate inserted, deleted and transposed characters
+ * better than q-grams, because a single typo breaks fewer of them. With normalization, the characters are lower-cased
+ * and stripped of their accents.
+ */
+@Getter
+public class SkipGramTokenization implements TokenizationStrategy {
+
+    // The maximum number of characters that may be skipped between the two characters of a token
+    private final int maxSkip;
+
+    // The choice of whether the characters should be lower-cased and stripped of their accents
+    private final boolean normalize;
+
+    public SkipGramTokenization(final int maxSkip, final boolean normalize) {
+        if (maxSkip < 0)
+            throw new IllegalArgumentException("The number of skipped characters must not be negative, but is " + maxSkip + ".");
+        this.maxSkip = maxSkip;
+        this.normalize = normalize;
+    }
+
+    @Override
+    public String[] tokenize(final String string) {
+        String[] tokens = new String[this.numTokens(string.length())];
+        int position = 0;
+        for (int i = 0; i < string.length() - 1; i++)
+            for (int j = i + 1; j < string.length() && j <= i + 1 + this.maxSkip; j++)
+                tokens[position++] = new String(new char[]{this.charAt(string, i), this.charAt(string, j)});
+        return tokens;
+    }
+
+    @Override
+    public void encode(final String string, final LongArrayList codes) {
+        codes.clear();
+        codes.ensureCapacity(this.numTokens(string.length()));
+
+        // Every token has two characters, so that its hash is the finished packed code; see TokenProfile.hash()
+        for (int i = 0; i < string.length() - 1; i++) {
+            long first = (long) this.charAt(string, i) << 16;
+            for (int j = i + 1; j < string.length() && j <= i + 1 + this.maxSkip; j++)
+                codes.add(TokenProfile.hash(first | this.charAt(string, j), 2));
+        }
+    }
+
+    private int numTokens(int length) {
+        // Every character pairs with the next maxSkip + 1 characters as far as the string reaches
+        int numTokens = 0;
+        for (int gap = 1; gap <= this.maxSkip + 1 && gap < length; gap++)
+            numTokens += length - gap;
+        return numTokens;
+    }
+
+    private char charAt(String string, int index) {
+        return this.normalize ? CharNormalizer.normalize(string.charAt(index)) : string.charAt(index);
+    }
+}
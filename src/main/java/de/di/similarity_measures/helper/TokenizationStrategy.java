@@ -0,0 +1,27 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * A TokenizationStrategy defines how a Tokenizer splits strings into tokens if the built-in character q-grams do not
+ * fit the data, e.g., word tokens for names and titles. Implementations must be consistent: encode() must emit exactly
+ * the TokenProfile.hash() of every token that tokenize() returns, in the same order, so that the string and the
+ * encoded paths of the similarity measures agree.
+ */
+public interface TokenizationStrategy {
+
+    /**
+     * Tokenizes the input string.
+     * @param string The string argument that should be tokenized.
+     * @return The tokenized argument.
+     */
+    String[] tokenize(String string);
+
+    /**
+     * Tokenizes the input string like tokenize(), but emits the 64 bit hash of every token instead of the token
+     * itself, ideally in a single pass over the string and without materializing the tokens.
+     * @param string The string argument that should be tokenized.
+     * @param codes The reusable list that receives the token hashes; it is cleared first.
+     */
+    void encode(String string, LongArrayList codes);
+}
@@ -1,5 +1,7 @@
 package de.di.similarity_measures.helper;
 
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import lombok.Getter;
 
 @Getter
@@ -14,18 +16,32 @@ public class Tokenizer {
     // The choice of whether padding should be used for the tokenization
     private final boolean usePadding;
 
+    // The tokenization strategy that replaces the character q-grams; null if character q-grams should be used
+    private final TokenizationStrategy strategy;
+
     public Tokenizer(final int tokenSize, final boolean usePadding) {
         this.tokenSize = tokenSize;
         this.usePadding = usePadding;
+        this.strategy = null;
+    }
+
+    public Tokenizer(final TokenizationStrategy strategy) {
+        this.tokenSize = 0;
+        this.usePadding = false;
+        this.strategy = strategy;
     }
 
     /**
-     * Tokenizes the input string into tokens of lengths this.tokenSize.
+     * Tokenizes the input string into tokens of lengths this.tokenSize or, if this tokenizer has a strategy, into the
+     * tokens of its strategy.
      * If "this.usePadding == true", the input strings are padded with "this.tokenSize - 1" paddingSymbols.
      * @param string The string argument that should be tokenized.
      * @return The tokenized argument.
      */
     public String[] tokenize(final String string) {
+        if (this.strategy != null)
+            return this.strategy.tokenize(string);
+
         String s = string;
         if (this.usePadding) {
             String padding = paddingSymbol.repeat(Math.max(0, this.tokenSize - 1));
@@ -41,4 +57,63 @@ public class Tokenizer {
             tokens[i] = s.substring(i, i + this.tokenSize);
         return tokens;
     }
+
+    /**
+     * Tokenizes the input string like tokenize(), but emits the 64 bit hash of every token, i.e., TokenProfile.hash(),
+     * instead of the token itself. Neither the padded string nor the tokens are materialized: tokens of up to four
+     * characters are rolled into a packed long and longer tokens into a rolling polynomial modulo 2^61 - 1, so that the
+     * call allocates nothing if the provided list has enough capacity. If this tokenizer has a strategy, the strategy
+     * encodes the string.
+     * @param string The string argument that should be tokenized.
+     * @param codes The reusable list that receives the token hashes; it is cleared first.
+     */
+    public void encode(final String string, final LongArrayList codes) {
+        if (this.strategy != null) {
+            this.strategy.encode(string, codes);
+            return;
+        }
+
+        codes.clear();
+        if (this.tokenSize < 1) {
+            for (String token : this.tokenize(string))
+                codes.add(TokenProfile.hash(token));
+            return;
+        }
+
+        String padding = this.usePadding ? paddingSymbol : "";
+        int paddingLength = this.usePadding ? padding.length() * (this.tokenSize - 1) : 0;
+        int length = 2 * paddingLength + string.length();
+        if (length < this.tokenSize)
+            return;
+
+        if (this.tokenSize <= TokenProfile.MAX_PACKED_LENGTH) {
+            long mask = (this.tokenSize == 4) ? -1L : (1L << (16 * this.tokenSize)) - 1;
+            long packed = 0;
+            for (int i = 0; i < length; i++) {
+                packed = ((packed << 16) | charAt(string, padding, paddingLength, i)) & mask;
+                if (i >= this.tokenSize - 1)
+                    codes.add(TokenProfile.hash(packed, this.tokenSize));
+            }
+            return;
+        }
+
+        // The window polynomial gains the next char and loses the char that leaves the window, each in constant time
+        long power = TokenProfile.power(this.tokenSize);
+        long window = 0;
+        for (int i = 0; i < length; i++) {
+            window = TokenProfile.roll(window, charAt(string, padding, paddingLength, i));
+            if (i >= this.tokenSize)
+                window = TokenProfile.unroll(window, charAt(string, padding, paddingLength, i - this.tokenSize), power);
+            if (i >= this.tokenSize - 1)
+                codes.add(TokenProfile.hash(window, this.tokenSize));
+        }
+    }
+
+    private static char charAt(String string, String padding, int paddingLength, int index) {
+        if (index < paddingLength)
+            return padding.charAt(index % padding.length());
+        if (index < paddingLength + string.length())
+            return string.charAt(index - paddingLength);
+        return padding.charAt((index - paddingLength - string.length()) % padding.length());
+    }
 }
@@ -0,0 +1,63 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.TokenProfile;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A UniversalMinHash calculates numeric MinHash signatures of token hashes with k independent hash functions. Every
+ * component of a signature is the minimum of all token hashes under one random permutation, which is
+ * approximated by a multiply-add-shift hash function h(x) = (a * x + b) >>> 33 with a random odd multiplier a and a
+ * random increment b. Unlike the comparator-based MinHash, which compares the tokens character by character, every
+ * token is hashed only once and each component costs one multiplication per token; the probability that two
+ * signatures agree in a component approximates the Jaccard similarity of the two token sets.
+ */
+public class UniversalMinHash implements MinHashScheme {
+
+    // The odd multipliers of the hash functions.
+    private final long[] multipliers;
+
+    // The increments of the hash functions.
+    private final long[] increments;
+
+    public UniversalMinHash(final int numHashFunctions, final long seed) {
+        if (numHashFunctions < 1)
+            throw new IllegalArgumentException("The number of hash functions must be positive, but is " + numHashFunctions + ".");
+
+        SplittableRandom random = new SplittableRandom(seed);
+        this.multipliers = new long[numHashFunctions];
+        this.increments = new long[numHashFunctions];
+        for (int i = 0; i < numHashFunctions; i++) {
+            this.multipliers[i] = random.nextLong() | 1;
+            this.increments[i] = random.nextLong();
+        }
+    }
+
+    @Override
+    public int getSignatureLength() {
+        return this.multipliers.length;
+    }
+
+    /**
+     * Calculates the signature of the provided token hashes with one component per hash function, i.e., in time
+     * O(tokens * k); the components of a token are all updated before the next token is read.
+     */
+    @Override
+    public int[] signature(final long[] codes, final int numCodes) {
+        int[] signature = new int[this.multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int t = 0; t < numCodes; t++) {
+            // Linear hash functions keep the structure of structured inputs, e.g., of codes that form a progression,
+            // which biases the minima; mixing every code once destroys that structure
+            long code = TokenProfile.mix(codes[t]);
+            for (int i = 0; i < signature.length; i++) {
+                // The 31 high bits of the product are the best mixed ones and keep the component non-negative
+                int hash = (int) ((this.multipliers[i] * code + this.increments[i]) >>> 33);
+                if (hash < signature[i])
+                    signature[i] = hash;
+            }
+        }
+        return signature;
+    }
+}
@@ -0,0 +1,59 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits strings into word tokens, i.e., the maximal runs of letters and digits; white spaces and punctuation separate
+ * the words and are dropped. With normalization, the words are lower-cased and stripped of their accents, so that
+ * "Müller-Lüdenscheidt" and "muller ludenscheidt" have the same tokens.
+ */
+@Getter
+@AllArgsConstructor
+public class WordTokenization implements TokenizationStrategy {
+
+    // The choice of whether the words should be lower-cased and stripped of their accents
+    private final boolean normalize;
+
+    @Override
+    public String[] tokenize(final String string) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= string.length(); i++) {
+            if (i < string.length() && Character.isLetterOrDigit(string.charAt(i))) {
+                word.append(this.normalize ? CharNormalizer.normalize(string.charAt(i)) : string.charAt(i));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    @Override
+    public void encode(final String string, final LongArrayList codes) {
+        codes.clear();
+
+        // The packed code and the polynomial of the current word are rolled up in parallel, because its length,
+        // which decides between the two, is known only at its end; see TokenProfile.hash()
+        int length = 0;
+        long packed = 0, polynomial = 0;
+        for (int i = 0; i <= string.length(); i++) {
+            if (i < string.length() && Character.isLetterOrDigit(string.charAt(i))) {
+                char c = this.normalize ? CharNormalizer.normalize(string.charAt(i)) : string.charAt(i);
+                packed = (packed << 16) | c;
+                polynomial = TokenProfile.roll(polynomial, c);
+                length++;
+            } else if (length > 0) {
+                codes.add(TokenProfile.hash((length <= TokenProfile.MAX_PACKED_LENGTH) ? packed : polynomial, length));
+                length = 0;
+                packed = polynomial = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.di.similarity_measures.structures;
+
+import lombok.Getter;
+
+/**
+ * MinHashSignatures store the MinHash signatures of many records, e.g., of all values of a column, which are
+ * calculated only once, so that the similarity of any two records is estimated by comparing their stored signatures
+ * without tokenizing or hashing the records again. The signatures are stored back to back in one int array.
+ */
+@Getter
+public class MinHashSignatures {
+
+    // The number of components of each signature.
+    private final int signatureLength;
+
+    // The number of stored signatures.
+    private final int numSignatures;
+
+    // The components of all signatures; the signature of record i occupies [i * signatureLength, (i + 1) * signatureLength).
+    private final int[] components;
+
+    public MinHashSignatures(int numSignatures, int signatureLength) {
+        this.signatureLength = signatureLength;
+        this.numSignatures = numSignatures;
+        this.components = new int[numSignatures * signatureLength];
+    }
+
+    /**
+     * Stores the signature of a record.
+     * @param index The index of the record.
+     * @param signature The signature of the record, which must have signatureLength components.
+     */
+    public void set(int index, int[] signature) {
+        System.arraycopy(signature, 0, this.components, index * this.signatureLength, this.signatureLength);
+    }
+
+    /**
+     * Returns the component of the signature of a record.
+     * @param index The index of the record.
+     * @param component The index of the component.
+     * @return The component.
+     */
+    public int get(int index, int component) {
+        return this.components[index * this.signatureLength + component];
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two records by the fraction of the components in which their signatures
+     * agree.
+     * @param index1 The index of the first record.
+     * @param index2 The index of the second record.
+     * @return The estimated Jaccard similarity.
+     */
+    public double similarity(int index1, int index2) {
+        int offset1 = index1 * this.signatureLength;
+        int offset2 = index2 * this.signatureLength;
+        int matchCount = 0;
+        for (int i = 0; i < this.signatureLength; i++)
+            if (this.components[offset1 + i] == this.components[offset2 + i])
+                matchCount++;
+        return (double) matchCount / this.signatureLength;
+    }
+}
@@ -0,0 +1,56 @@
+package de.di.similarity_measures.structures;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * A SimilarPair is a result of a similarity join: the indexes of two values, one of each joined value array, and
+ * their similarity. For a self-join, both indexes refer to the same array and index1 < index2.
+ */
+@Getter
+public class SimilarPair implements Comparable<SimilarPair> {
+
+    // The index of the value in the first joined array.
+    private final int index1;
+
+    // The index of the value in the second joined array.
+    private final int index2;
+
+    // The similarity of the two values.
+    private final double similarity;
+
+    public SimilarPair(int index1, int index2, double similarity) {
+        this.index1 = index1;
+        this.index2 = index2;
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String toString() {
+        return "SimilarPair(" + String.format("%1.6f", this.similarity) + ": " + this.index1 + ", " + this.index2 + ')';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || this.getClass() != o.getClass())
+            return false;
+        SimilarPair pair = (SimilarPair) o;
+        return this.index1 == pair.getIndex1() &&
+                this.index2 == pair.getIndex2();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.index1, this.index2);
+    }
+
+    @Override
+    public int compareTo(SimilarPair o) {
+        if (this.index1 != o.getIndex1())
+            return Integer.compare(this.index1, o.getIndex1());
+        return Integer.compare(this.index2, o.getIndex2());
+    }
+}
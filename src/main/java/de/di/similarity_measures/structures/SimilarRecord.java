@@ -0,0 +1,27 @@
+package de.di.similarity_measures.structures;
+
+import lombok.Getter;
+
+/**
+ * A SimilarRecord is a result of a similarity search: the index of a record that is similar to the query and its
+ * estimated similarity to the query.
+ */
+@Getter
+public class SimilarRecord {
+
+    // The index of the record.
+    private final int index;
+
+    // The estimated similarity of the record to the query.
+    private final double similarity;
+
+    public SimilarRecord(int index, double similarity) {
+        this.index = index;
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String toString() {
+        return "SimilarRecord(" + String.format("%1.6f", this.similarity) + ": " + this.index + ')';
+    }
+}
@@ -0,0 +1,242 @@
+package de.di.similarity_measures.structures;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A TokenProfile is the pre-processed token multiset of a value: the sorted, distinct 64 bit hashes of its tokens and
+ * the number of occurrences of each hash. A value is tokenized and hashed only once into its profile, after which
+ * set and bag similarities of two profiles are calculated by merging their sorted hash arrays, without any hashing,
+ * boxing or allocation. Distinct tokens of up to four characters never collide if they have the same length; longer
+ * tokens are hashed with a polynomial modulo the Mersenne prime 2^61 - 1, for which two distinct tokens of length n
+ * collide with a probability of at most about n / 2^61.
+ */
+@Getter
+public class TokenProfile {
+
+    // The profile of a value without tokens.
+    public static final TokenProfile EMPTY = new TokenProfile(new long[0], new int[0], 0);
+
+    // The maximum length of tokens that are packed into a long instead of being hashed polynomially.
+    public static final int MAX_PACKED_LENGTH = 4;
+
+    // The modulus of the polynomial token hashes, i.e., the Mersenne prime 2^61 - 1.
+    private static final long MODULUS = (1L << 61) - 1;
+
+    // The base of the polynomial token hashes, a fixed random number below the modulus.
+    private static final long BASE = 0x0B1A5E5C61D2F4A7L;
+
+    // The multiplier that folds the length of a token into its hash, so that "\0ab" and "ab" differ.
+    private static final long LENGTH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // The hash of null tokens, which differs from the hash of the empty token.
+    private static final long NULL_HASH = hash(0, -1);
+
+    // The sorted, distinct hashes of the tokens.
+    private final long[] hashes;
+
+    // The number of occurrences of each hash, i.e., counts[i] belongs to hashes[i].
+    private final int[] counts;
+
+    // The total number of tokens, i.e., the sum of all counts.
+    private final int numTokens;
+
+    private TokenProfile(long[] hashes, int[] counts, int numTokens) {
+        this.hashes = hashes;
+        this.counts = counts;
+        this.numTokens = numTokens;
+    }
+
+    /**
+     * Creates the profile of the provided tokens.
+     * @param tokens The tokens of a value, e.g., as produced by a Tokenizer.
+     * @return The profile of the tokens.
+     */
+    public static TokenProfile of(String[] tokens) {
+        long[] hashes = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++)
+            hashes[i] = (tokens[i] == null) ? NULL_HASH : hash(tokens[i]);
+        return ofHashes(hashes, hashes.length);
+    }
+
+    /**
+     * Creates the profile of the provided token hashes; the array is sorted in place and may be reused afterwards.
+     * @param hashes The token hashes of a value.
+     * @param length The number of hashes in the array, which may be larger.
+     * @return The profile of the token hashes.
+     */
+    public static TokenProfile ofHashes(long[] hashes, int length) {
+        if (length == 0)
+            return EMPTY;
+
+        Arrays.sort(hashes, 0, length);
+        int numDistinct = 1;
+        for (int i = 1; i < length; i++)
+            if (hashes[i] != hashes[i - 1])
+                numDistinct++;
+
+        long[] distinctHashes = new long[numDistinct];
+        int[] counts = new int[numDistinct];
+        int position = 0;
+        distinctHashes[0] = hashes[0];
+        for (int i = 0; i < length; i++) {
+            if (hashes[i] != distinctHashes[position])
+                distinctHashes[++position] = hashes[i];
+            counts[position]++;
+        }
+        return new TokenProfile(distinctHashes, counts, length);
+    }
+
+    /**
+     * Calculates the 64 bit hash of a token. Tokens of up to four characters are packed into a long with 16 bits per
+     * character, which is collision-free for tokens of equal length; longer tokens are hashed with a polynomial
+     * modulo 2^61 - 1; see roll(). Both codes are finished together with the token length; see hash(long, int). The
+     * Tokenizer calculates the same hashes with a rolling variant without materializing the tokens; see
+     * Tokenizer.encode().
+     * @param token The token to hash.
+     * @return The hash of the token.
+     */
+    public static long hash(CharSequence token) {
+        if (token.length() <= MAX_PACKED_LENGTH) {
+            long packed = 0;
+            for (int i = 0; i < token.length(); i++)
+                packed = (packed << 16) | token.charAt(i);
+            return hash(packed, token.length());
+        }
+
+        long polynomial = 0;
+        for (int i = 0; i < token.length(); i++)
+            polynomial = roll(polynomial, token.charAt(i));
+        return hash(polynomial, token.length());
+    }
+
+    /**
+     * Finishes the hash of a token from its code, i.e., its packed characters or its polynomial, and its length. The
+     * length is needed, because the packed codes of, e.g., "\0ab" and "ab" are equal.
+     * @param code The packed characters or the polynomial of the token.
+     * @param length The length of the token.
+     * @return The hash of the token.
+     */
+    public static long hash(long code, int length) {
+        return mix(code + length * LENGTH_MULTIPLIER);
+    }
+
+    /**
+     * Appends a character to the polynomial of a token, i.e., calculates (polynomial * base + c) mod (2^61 - 1). The
+     * base is random, so that, unlike for small bases such as 31, no two short strings of natural text collide.
+     * @param polynomial The polynomial of the characters so far; 0 for no characters.
+     * @param c The character to append.
+     * @return The polynomial of the characters including c.
+     */
+    public static long roll(long polynomial, char c) {
+        return reduce(multiplyModulo(polynomial, BASE) + c);
+    }
+
+    /**
+     * Removes the character from the front of the polynomial of a token window, i.e., subtracts c * base^length, so
+     * that a window of fixed length can be rolled over a string in constant time per character.
+     * @param polynomial The polynomial of the window including c.
+     * @param c The first character of the window.
+     * @param power The power base^length of the window length, as calculated by power().
+     * @return The polynomial of the window without c.
+     */
+    public static long unroll(long polynomial, char c, long power) {
+        return reduce(polynomial + MODULUS - multiplyModulo(c, power));
+    }
+
+    /**
+     * Calculates the power base^exponent modulo 2^61 - 1 of the polynomial token hashes.
+     * @param exponent The non-negative exponent, e.g., a token length.
+     * @return The power.
+     */
+    public static long power(int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++)
+            power = multiplyModulo(power, BASE);
+        return power;
+    }
+
+    private static long multiplyModulo(long a, long b) {
+        // Because 2^61 = 1 modulo 2^61 - 1, the product is reduced by adding its high 61 bits to its low 61 bits
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        return reduce((low & MODULUS) + ((low >>> 61) | (high << 3)));
+    }
+
+    private static long reduce(long value) {
+        return (value >= MODULUS) ? value - MODULUS : value;
+    }
+
+    /**
+     * Spreads the bits of a hash over all 64 bits with the finalizer of Murmur3, because similar tokens have similar
+     * packed codes. The mixing is a bijection, so that it never introduces collisions.
+     * @param hash The hash to mix.
+     * @return The mixed hash.
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Returns the number of distinct tokens of this profile.
+     * @return The number of distinct tokens.
+     */
+    public int numDistinctTokens() {
+        return this.hashes.length;
+    }
+
+    /**
+     * Calculates the number of distinct tokens that this and the other profile share, i.e., the size of the set
+     * intersection, by merging the sorted hash arrays.
+     * @param other The other profile.
+     * @return The size of the set intersection.
+     */
+    public int intersectionSize(TokenProfile other) {
+        long[] hashes1 = this.hashes;
+        long[] hashes2 = other.hashes;
+        int intersection = 0;
+        int i = 0, j = 0;
+        while (i < hashes1.length && j < hashes2.length) {
+            if (hashes1[i] < hashes2[j]) {
+                i++;
+            } else if (hashes1[i] > hashes2[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return intersection;
+    }
+
+    /**
+     * Calculates the number of tokens that this and the other profile share with their multiplicities, i.e., the size
+     * of the multiset intersection, by merging the sorted hash arrays.
+     * @param other The other profile.
+     * @return The size of the multiset intersection.
+     */
+    public int bagIntersectionSize(TokenProfile other) {
+        long[] hashes1 = this.hashes;
+        long[] hashes2 = other.hashes;
+        int intersection = 0;
+        int i = 0, j = 0;
+        while (i < hashes1.length && j < hashes2.length) {
+            if (hashes1[i] < hashes2[j]) {
+                i++;
+            } else if (hashes1[i] > hashes2[j]) {
+                j++;
+            } else {
+                intersection += Math.min(this.counts[i], other.counts[j]);
+                i++;
+                j++;
+            }
+        }
+        return intersection;
+    }
+}
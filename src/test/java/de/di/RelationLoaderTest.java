@@ -0,0 +1,31 @@
+package de.di;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RelationLoaderTest {
+
+    @Test
+    public void testParallelLoadKeepsWalkOrder() {
+        String folder = "data" + File.separator + "data_profiling";
+        List<String> expected = new RelationLoader(true, ';', StandardCharsets.UTF_8).loadAll(folder).stream()
+                .map(Relation::getName).collect(Collectors.toList());
+
+        // The small files finish in varying orders, which must not change the order of the relations or statistics
+        for (int run = 0; run < 10; run++) {
+            RelationLoader loader = new RelationLoader(true, ';', StandardCharsets.UTF_8);
+            loader.setNumThreads(4);
+            List<Relation> relations = loader.loadAll(folder);
+            assertEquals(expected, relations.stream().map(Relation::getName).collect(Collectors.toList()));
+            assertEquals(expected, loader.getStatistics().stream()
+                    .map(statistics -> statistics.getPath().getFileName().toString().split("\\.")[0])
+                    .collect(Collectors.toList()));
+        }
+    }
+}
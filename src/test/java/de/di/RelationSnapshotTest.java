@@ -0,0 +1,143 @@
+package de.di;
+
+import de.di.data_profiling.UCCProfiler;
+import de.di.data_profiling.structures.UCC;
+import de.di.helper.RowSample;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RelationSnapshotTest {
+
+    @Test
+    public void testRoundTrip_tpch_supplier() throws IOException {
+        Relation relation = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        Path file = Files.createTempFile("tpch_supplier", RelationSnapshot.FILE_EXTENSION);
+        try {
+            RelationSnapshot.write(relation, file);
+            ColumnarRelation snapshot = RelationSnapshot.open(file);
+
+            assertEquals(relation.getName(), snapshot.getName());
+            assertArrayEquals(relation.getAttributes(), snapshot.getAttributes());
+            assertEquals(relation.getRecords().length, snapshot.getNumRecords());
+            assertArrayEquals(relation.getRecords(), snapshot.toRelation().getRecords());
+
+            // UCCs refer to their relation, which is a schema-only relation for snapshots; hence, compare their labels
+            UCCProfiler profiler = new UCCProfiler();
+            Set<String> expectedUccs = profiler.profile(relation).stream().map(UCC::toString).collect(Collectors.toSet());
+            Set<String> uccs = profiler.profile(snapshot).stream().map(UCC::toString).collect(Collectors.toSet());
+            assertEquals(expectedUccs, uccs);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRoundTrip_specialValues() throws IOException {
+        String longValue = "ü".repeat(40000);
+        Relation relation = new Relation("special", new String[]{"A", "B"}, new String[][]{
+                {"", "Ärger"},
+                {longValue, "line\nbreak"},
+                {"", "Ärger"}});
+        Path file = Files.createTempFile("special", RelationSnapshot.FILE_EXTENSION);
+        try {
+            RelationSnapshot.write(relation, file);
+            ColumnarRelation snapshot = RelationSnapshot.open(file);
+            assertArrayEquals(relation.getRecords(), snapshot.toRelation().getRecords());
+            assertEquals(2, snapshot.getColumn(0).cardinality());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLazyColumns() throws IOException {
+        Relation relation = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        ColumnarRelation expected = new ColumnarRelation(relation);
+        Path file = Files.createTempFile("tpch_supplier", RelationSnapshot.FILE_EXTENSION);
+        try {
+            RelationSnapshot.write(relation, file);
+            ColumnarRelation snapshot = RelationSnapshot.open(file);
+            for (int i = 0; i < relation.getAttributes().length; i++) {
+                EncodedColumn column = snapshot.getColumn(i);
+                assertEquals(expected.getColumn(i).cardinality(), column.cardinality());
+                assertArrayEquals(relation.getColumn(i), column.decode());
+                assertArrayEquals(expected.getColumn(i).getDictionary(), column.getDictionary());
+                assertArrayEquals(expected.getColumn(i).getValueIds(), column.getValueIds());
+                assertEquals(column.cardinality(), column.intersectionSize(expected.getColumn(i)));
+            }
+
+            Iterator<String[]> records = snapshot.records();
+            for (String[] record : relation.getRecords())
+                assertArrayEquals(record, records.next());
+            assertFalse(records.hasNext());
+
+            RelationLoader loader = new RelationLoader(true, ';', StandardCharsets.UTF_8);
+            loader.setSample(RowSample.first(3));
+            assertArrayEquals(Arrays.copyOf(relation.getRecords(), 3), loader.load(file).getRecords());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSnapshotCommandKeepsRelativePaths() throws IOException {
+        Path input = Files.createTempDirectory("input");
+        Path output = Files.createTempDirectory("output");
+        try {
+            // All three files have the relation name "supplier"
+            Files.createDirectories(input.resolve("a"));
+            Files.createDirectories(input.resolve("b"));
+            Files.write(input.resolve("a").resolve("supplier.csv"), "A;B\n1;2\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(input.resolve("a").resolve("supplier.txt"), "A;B\n3;4\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(input.resolve("b").resolve("supplier.csv"), "A;B\n5;6\n".getBytes(StandardCharsets.UTF_8));
+
+            Main.main(new String[]{"Snapshot", "--input", input.toString(), "--output", output.toString()});
+
+            assertEquals("1", RelationSnapshot.open(output.resolve("a").resolve("supplier.csv" + RelationSnapshot.FILE_EXTENSION)).getColumn(0).get(0));
+            assertEquals("3", RelationSnapshot.open(output.resolve("a").resolve("supplier.txt" + RelationSnapshot.FILE_EXTENSION)).getColumn(0).get(0));
+            assertEquals("5", RelationSnapshot.open(output.resolve("b").resolve("supplier.csv" + RelationSnapshot.FILE_EXTENSION)).getColumn(0).get(0));
+        } finally {
+            for (Path directory : new Path[]{input, output})
+                try (Stream<Path> paths = Files.walk(directory)) {
+                    paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("other", RelationSnapshot.FILE_EXTENSION);
+        try {
+            Files.write(file, "A;B\n1;2\n".getBytes(StandardCharsets.UTF_8));
+            RelationSnapshot.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReaderRejectsSnapshots() throws IOException {
+        Path file = Files.createTempFile("special", RelationSnapshot.FILE_EXTENSION);
+        try {
+            RelationSnapshot.write(new Relation("special", new String[]{"A"}, new String[][]{{"1"}}), file);
+            new RelationReader(file, true, ';', StandardCharsets.UTF_8).close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
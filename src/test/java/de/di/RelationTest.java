@@ -0,0 +1,41 @@
+package de.di;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RelationTest {
+
+    @Test
+    public void testColumns() {
+        Relation relation = new Relation("r", new String[]{"A", "B"}, new String[][]{{"1", "x"}, {"2", "y"}});
+        assertArrayEquals(new String[]{"1", "2"}, relation.getColumn(0));
+        assertSame(relation.getColumn(1), relation.getColumn(1));
+
+        // Modifying the copies of getColumns() must not corrupt the cached columns
+        String[][] columns = relation.getColumns();
+        columns[1][0] = "z";
+        assertArrayEquals(new String[]{"x", "y"}, relation.getColumn(1));
+        assertArrayEquals(new String[]{"x", "y"}, relation.getColumns()[1]);
+    }
+
+    @Test
+    public void testConcurrentColumns() {
+        String[][] records = new String[10000][];
+        for (int i = 0; i < records.length; i++)
+            records[i] = new String[]{String.valueOf(i), String.valueOf(i % 7)};
+        Relation relation = new Relation("r", new String[]{"A", "B"}, records);
+
+        // All threads must see the same published column
+        Set<String[]> columns = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 64).parallel().forEach(i -> columns.add(relation.getColumn(1)));
+        assertEquals(1, columns.size());
+        assertEquals("3", columns.iterator().next()[10]);
+    }
+}
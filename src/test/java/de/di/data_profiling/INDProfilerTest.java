@@ -1,12 +1,16 @@
 package de.di.data_profiling;
 
+import de.di.ColumnarRelation;
 import de.di.Relation;
+import de.di.RelationReader;
 import de.di.data_profiling.structures.IND;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 
@@ -25,4 +29,26 @@ public class INDProfilerTest {
         List<IND> inds = profiler.profile(relations, false);
         assertEquals(211, inds.size());
     }
+
+    @Test
+    public void testStreaming() {
+        INDProfiler profiler = new INDProfiler();
+        List<Supplier<RelationReader>> readers = new ArrayList<>();
+        for (String file : new String[]{"abcde.csv", "abcdefghi.csv", "tpch_nation.csv", "tpch_region.csv", "tpch_supplier.csv"})
+            readers.add(() -> new RelationReader("data" + File.separator + "data_profiling" + File.separator + file, true, ';', StandardCharsets.UTF_8));
+
+        List<IND> inds = profiler.profileStreams(readers, 4, false);
+        assertEquals(211, inds.size());
+    }
+
+    @Test
+    public void testColumnar() {
+        INDProfiler profiler = new INDProfiler();
+        List<ColumnarRelation> relations = new ArrayList<>();
+        for (String file : new String[]{"abcde.csv", "abcdefghi.csv", "tpch_nation.csv", "tpch_region.csv", "tpch_supplier.csv"})
+            relations.add(new ColumnarRelation(new RelationReader("data" + File.separator + "data_profiling" + File.separator + file, true, ';', StandardCharsets.UTF_8), 4));
+
+        List<IND> inds = profiler.profileColumnar(relations, false);
+        assertEquals(211, inds.size());
+    }
 }
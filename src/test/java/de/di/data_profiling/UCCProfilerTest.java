@@ -1,11 +1,14 @@
 package de.di.data_profiling;
 
+import de.di.ColumnarRelation;
 import de.di.Relation;
+import de.di.RelationReader;
 import de.di.data_profiling.structures.AttributeList;
 import de.di.data_profiling.structures.UCC;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -76,4 +79,32 @@ public class UCCProfilerTest {
         expectedUccs.add(new UCC(relation, new AttributeList(new int[]{3})));
         assertEquals(expectedUccs, uccs);
     }
+
+    @Test
+    public void testStreaming_abcdefghi() {
+        UCCProfiler profiler = new UCCProfiler();
+        String path = "data" + File.separator + "data_profiling" + File.separator + "abcdefghi.csv";
+        Relation relation = new Relation(path);
+
+        Set<String> expectedUccs = new HashSet<>();
+        for (UCC ucc : profiler.profile(relation))
+            expectedUccs.add(ucc.toString());
+
+        Set<String> uccs = new HashSet<>();
+        try (RelationReader reader = new RelationReader(path, true, ';', StandardCharsets.UTF_8)) {
+            for (UCC ucc : profiler.profile(reader, 3))
+                uccs.add(ucc.toString());
+        }
+        assertEquals(expectedUccs, uccs);
+    }
+
+    @Test
+    public void testColumnar_abcdefghi() {
+        UCCProfiler profiler = new UCCProfiler();
+        Relation relation = new Relation("data" + File.separator + "data_profiling" + File.separator + "abcdefghi.csv");
+
+        Set<UCC> expectedUccs = new HashSet<>(profiler.profile(relation));
+        Set<UCC> uccs = new HashSet<>(profiler.profile(new ColumnarRelation(relation)));
+        assertEquals(expectedUccs, uccs);
+    }
 }
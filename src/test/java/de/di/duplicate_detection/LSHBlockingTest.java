@@ -0,0 +1,31 @@
+package de.di.duplicate_detection;
+
+import de.di.Relation;
+import de.di.similarity_measures.LocalitySensitiveHashing;
+import de.di.similarity_measures.helper.OnePermutationMinHash;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.SimilarPair;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LSHBlockingTest {
+
+    @Test
+    public void testCandidates() {
+        String[][] records = {
+                {"1", "Pink Floyd", "The Dark Side of the Moon"},
+                {"2", "The Beatles", "Abbey Road"},
+                {"3", "Pink Floyd", "Dark Side of the Moon"},
+                {"4", "Miles Davis", "Kind of Blue"},
+                {"5", "Beatles", "Abbey Road"}};
+        Relation relation = new Relation("cds", new String[]{"id", "artist", "title"}, records);
+
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(128, 1));
+        LSHBlocking blocking = new LSHBlocking(lsh, 0.5);
+        List<SimilarPair> candidates = blocking.candidates(relation, new int[]{1, 2});
+        assertEquals(List.of(new SimilarPair(0, 2, 0), new SimilarPair(1, 4, 0)), candidates);
+    }
+}
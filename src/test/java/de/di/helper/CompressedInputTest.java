@@ -0,0 +1,154 @@
+package de.di.helper;
+
+import de.di.Relation;
+import de.di.RelationReader;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompressedInputTest {
+
+    private static final Path SUPPLIER = Path.of("data", "data_profiling", "tpch_supplier.csv");
+
+    @Test
+    public void testGzipAndZstdRelationsEqualPlainRelation() throws IOException {
+        Relation expected = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8);
+        Path directory = Files.createTempDirectory("compressed");
+        Path gzip = directory.resolve("tpch_supplier.csv.gz");
+        Path zstd = directory.resolve("tpch_supplier.csv.zst");
+        try {
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+                Files.copy(SUPPLIER, output);
+            }
+            try (OutputStream output = new ZstdOutputStream(Files.newOutputStream(zstd))) {
+                Files.copy(SUPPLIER, output);
+            }
+
+            for (Path file : new Path[]{gzip, zstd}) {
+                Relation relation = new Relation(new RelationReader(file, true, ';', StandardCharsets.UTF_8, true));
+                assertEquals(expected.getName(), relation.getName());
+                assertArrayEquals(expected.getAttributes(), relation.getAttributes());
+                assertArrayEquals(expected.getRecords(), relation.getRecords());
+            }
+        } finally {
+            Files.deleteIfExists(gzip);
+            Files.deleteIfExists(zstd);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testCodecOf() {
+        assertEquals(CompressedInput.Codec.GZIP, CompressedInput.codecOf(Path.of("a.csv.gz")));
+        assertEquals(CompressedInput.Codec.ZSTD, CompressedInput.codecOf(Path.of("a.csv.zst")));
+        assertNull(CompressedInput.codecOf(Path.of("a.csv")));
+    }
+
+    @Test
+    public void testCorruptInputFailsTheConsumer() throws IOException {
+        Path file = Files.createTempFile("corrupt", ".csv.gz");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream output = new GZIPOutputStream(bytes)) {
+                output.write(Files.readAllBytes(SUPPLIER));
+            }
+            byte[] content = bytes.toByteArray();
+            content[content.length / 2] ^= 0x55;
+            Files.write(file, content);
+
+            try (InputStream input = CompressedInput.open(file)) {
+                input.readAllBytes();
+                fail("The corruption should have been reported");
+            } catch (IOException e) {
+                // expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWrongFormatClosesTheFile() throws IOException {
+        // The open file descriptors are only countable on Linux
+        Path descriptors = Path.of("/proc/self/fd");
+        Assume.assumeTrue(Files.isDirectory(descriptors));
+
+        Path file = Files.createTempFile("plain", ".csv.gz");
+        try {
+            Files.write(file, "not,gzip\n".getBytes(StandardCharsets.UTF_8));
+            long numDescriptors = countFiles(descriptors);
+            for (int i = 0; i < 100; i++) {
+                try {
+                    CompressedInput.open(file);
+                    fail("The wrong format should have been reported");
+                } catch (RuntimeException e) {
+                    assertTrue(e.getCause() instanceof ZipException);
+                }
+            }
+            assertTrue(countFiles(descriptors) <= numDescriptors + 10);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long countFiles(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.count();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testTruncatedAndCorruptZstdFailTheConsumer() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = new ZstdOutputStream(bytes)) {
+            output.write(Files.readAllBytes(SUPPLIER));
+        }
+        byte[] content = bytes.toByteArray();
+        byte[] truncated = Arrays.copyOf(content, content.length / 2);
+        byte[] corrupt = content.clone();
+        corrupt[0] ^= 0x55;  // breaks the frame's magic number
+
+        for (byte[] input : new byte[][]{truncated, corrupt}) {
+            Path file = Files.createTempFile("corrupt", ".csv.zst");
+            try {
+                Files.write(file, input);
+                // aircompressor reports both with unchecked exceptions on the decompressing thread
+                try (InputStream stream = CompressedInput.open(file)) {
+                    stream.readAllBytes();
+                    fail("The damaged zstd input should have been reported");
+                } catch (IOException e) {
+                    // expected
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testEarlyCloseDoesNotBlock() throws IOException {
+        byte[] content = new byte[10_000_000];
+        PipelinedInputStream input = new PipelinedInputStream(new ByteArrayInputStream(content), "test");
+        assertEquals(0, input.read());
+        input.close();
+    }
+}
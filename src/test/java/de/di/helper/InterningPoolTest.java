@@ -0,0 +1,64 @@
+package de.di.helper;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class InterningPoolTest {
+
+    @Test
+    public void testEqualValuesShareInstances() {
+        InterningPool pool = new InterningPool();
+        String[] first = {new String("GERMANY"), new String("1")};
+        String[] second = {new String("GERMANY"), new String("2")};
+        String[] third = {new String("1"), new String("GERMANY")};
+        pool.intern(first);
+        pool.intern(second);
+        pool.intern(third);
+
+        assertSame(first[0], second[0]);
+        assertNotSame(first[1], third[0]); // pools are per column
+        assertEquals(1, pool.getNumInternedValues());
+        assertEquals(InterningPool.estimateSize("GERMANY"), pool.getSavedBytes());
+    }
+
+    @Test
+    public void testMergeCountsReplacedInstancesOnce() {
+        InterningPool filePool = new InterningPool();
+        filePool.intern(new String[]{new String("GERMANY")});
+
+        // Both records of the chunk refer to the chunk's instance, which is freed only once
+        InterningPool chunkPool = new InterningPool();
+        List<String[]> chunk = List.of(new String[]{new String("GERMANY")}, new String[]{new String("GERMANY")});
+        chunk.forEach(chunkPool::intern);
+        filePool.merge(chunk, chunkPool);
+
+        assertSame(chunk.get(0)[0], chunk.get(1)[0]);
+        assertEquals(1 + 2, filePool.getNumInternedValues());
+        assertEquals(2 * InterningPool.estimateSize("GERMANY"), filePool.getSavedBytes());
+    }
+
+    @Test
+    public void testUniqueColumnsAreNotPooled() {
+        InterningPool pool = new InterningPool();
+        for (int i = 0; i < 2000; i++)
+            pool.intern(new String[]{String.valueOf(i), new String("x")});
+
+        String[] record = {new String("5"), new String("x")};
+        pool.intern(record);
+        assertEquals(1999 + 1, pool.getNumInternedValues());
+        assertEquals(null, pool.getPools().get(0));
+    }
+
+    @Test
+    public void testEstimateSize() {
+        assertEquals(24 + 24, InterningPool.estimateSize("abc"));
+        assertEquals(24 + 24, InterningPool.estimateSize("üöä"));
+        assertEquals(24 + 24, InterningPool.estimateSize("€€€"));
+        assertEquals(24 + 32, InterningPool.estimateSize("€€€€€"));
+    }
+}
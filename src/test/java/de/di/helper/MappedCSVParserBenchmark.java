@@ -0,0 +1,71 @@
+package de.di.helper;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the OpenCSV-based and the memory-mapped record parsing on a scaled-up copy of the tpch_supplier data.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.di.helper.MappedCSVParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MappedCSVParserBenchmark {
+
+    // How many copies of the original file the benchmarked file consists of.
+    @Param({"1", "10"})
+    public int scale;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Path original = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        byte[] content = Files.readAllBytes(original);
+        this.file = Files.createTempFile("tpch_supplier_x" + this.scale, ".csv");
+        for (int i = 0; i < this.scale; i++)
+            Files.write(this.file, content, StandardOpenOption.APPEND);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(this.file);
+    }
+
+    @Benchmark
+    public void openCSV(Blackhole blackhole) throws IOException {
+        try (RecordParser parser = new OpenCSVRecordParser(Files.newBufferedReader(this.file, StandardCharsets.UTF_8), ';')) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void memoryMapped(Blackhole blackhole) {
+        try (RecordParser parser = new MappedCSVParser(this.file, ';', StandardCharsets.UTF_8)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    private static void consume(RecordParser parser, Blackhole blackhole) {
+        String[] record;
+        while ((record = parser.readNext()) != null)
+            blackhole.consume(record);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MappedCSVParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
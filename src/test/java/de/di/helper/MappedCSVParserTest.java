@@ -0,0 +1,122 @@
+package de.di.helper;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MappedCSVParserTest {
+
+    @Test
+    public void testSameRecordsAsOpenCSV() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Path.of("data"))) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            char separator = file.toString().contains("schema_matching") ? ',' : ';';
+            assertSameRecords(file, separator, StandardCharsets.UTF_8, Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void testSpecialCases() throws IOException {
+        String content = "a,\"b,c\",d\n" +
+                "a,bc\"d\"ef,g\r\n" +
+                "\"multi\nline\",x\r" +
+                "\"x\"\"y\",z\n" +
+                "a\\,b,c\\d,\\\"e\n" +
+                "\n" +
+                "\"\",,\"abc\"def\n" +
+                "Ärger,Façade,\"Ü\"";
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1}) {
+            Path file = Files.createTempFile("mapped", ".csv");
+            try {
+                Files.write(file, content.getBytes(charset));
+                assertSameRecords(file, ',', charset, Integer.MAX_VALUE);
+                assertSameRecords(file, ',', charset, 20);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomInputs() throws IOException {
+        char[] alphabet = {'a', 'b', ',', '"', '\\', '\n', '\r', ' ', 'ü'};
+        Random random = new Random(42);
+        Path file = Files.createTempFile("mapped", ".csv");
+        try {
+            for (int run = 0; run < 500; run++) {
+                StringBuilder content = new StringBuilder();
+                int length = random.nextInt(40);
+                for (int i = 0; i < length; i++)
+                    content.append(alphabet[random.nextInt(alphabet.length)]);
+                Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+                assertSameRecords(file, ',', StandardCharsets.UTF_8, 24);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRepeatedValuesShareInstances() throws IOException {
+        Path file = Files.createTempFile("mapped", ".csv");
+        try {
+            Files.write(file, "GERMANY;1\nFRANCE;2\nGERMANY;3\n".getBytes(StandardCharsets.UTF_8));
+            try (MappedCSVParser parser = new MappedCSVParser(file, ';', StandardCharsets.UTF_8)) {
+                String[] first = parser.readNext();
+                parser.readNext();
+                String[] third = parser.readNext();
+                assertEquals("GERMANY", third[0]);
+                assertSame(first[0], third[0]);
+                assertEquals(5, parser.dictionarySize());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameRecords(Path file, char separator, Charset charset, long windowSize) throws IOException {
+        List<String[]> expected = new ArrayList<>();
+        RuntimeException expectedException = null;
+        try (RecordParser parser = new OpenCSVRecordParser(Files.newBufferedReader(file, charset), separator)) {
+            String[] record;
+            while ((record = parser.readNext()) != null)
+                expected.add(record);
+        } catch (RuntimeException e) {
+            expectedException = e;
+        }
+
+        List<String[]> actual = new ArrayList<>();
+        RuntimeException actualException = null;
+        try (RecordParser parser = new MappedCSVParser(file, separator, charset, windowSize)) {
+            String[] record;
+            while ((record = parser.readNext()) != null)
+                actual.add(record);
+        } catch (RuntimeException e) {
+            actualException = e;
+        }
+
+        String input = Files.size(file) < 1024 ? new String(Files.readAllBytes(file), charset) : file.toString();
+        assertEquals("Exception mismatch for: " + input, expectedException == null, actualException == null);
+        if (expectedException != null)
+            return;
+        assertEquals("Record count mismatch for: " + input, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals("Record " + i + " mismatch for: " + input, expected.get(i), actual.get(i));
+    }
+}
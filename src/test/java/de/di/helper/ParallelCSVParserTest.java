@@ -0,0 +1,152 @@
+package de.di.helper;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelCSVParserTest {
+
+    @Test
+    public void testSameRecordsAsSequentialParsing() {
+        Path file = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        for (boolean skipHeader : new boolean[]{true, false}) {
+            ParallelCSVParser parser = new ParallelCSVParser(file, ';', StandardCharsets.UTF_8, 4, 1024);
+            assertTrue(parser.split(skipHeader, ForkJoinPool.commonPool()).size() > 2);
+            assertSameRecords(file, ';', skipHeader, parser.parseAll(skipHeader));
+        }
+    }
+
+    @Test
+    public void testInterningChunks() {
+        Path file = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        ParallelCSVParser parser = new ParallelCSVParser(file, ';', StandardCharsets.UTF_8, 4, 1024);
+        InterningPool interningPool = new InterningPool();
+        List<String[]> records = parser.parseAll(true, interningPool);
+        assertSameRecords(file, ';', true, records);
+
+        // The equal nation keys of all chunks share one instance, although every chunk was parsed separately
+        Set<String> nationKeys = new HashSet<>();
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String[] record : records) {
+            nationKeys.add(record[3]);
+            instances.add(record[3]);
+        }
+        assertEquals(nationKeys.size(), instances.size());
+        assertTrue(interningPool.getSavedBytes() > 0);
+    }
+
+    @Test
+    public void testMultiLineFieldsAcrossChunks() throws IOException {
+        StringBuilder content = new StringBuilder("A,B\n");
+        for (int i = 0; i < 200; i++)
+            content.append(i).append(",\"line\n").append(i).append("\r\nwith \"\"quotes\"\", and\nbreaks\"\n");
+        Path file = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            for (int minChunkSize : new int[]{1, 7, 100}) {
+                ParallelCSVParser parser = new ParallelCSVParser(file, ',', StandardCharsets.UTF_8, 3, minChunkSize);
+                List<String[]> records = parser.parseAll(true);
+                assertEquals(200, records.size());
+                assertEquals("line\n7\nwith \"quotes\", and\nbreaks", records.get(7)[1]);
+                assertSameRecords(file, ',', true, records);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testResyncInsideQuotedFields() throws IOException {
+        String record = "1,\"a\n\"\"b\"\",\nc\",d\n";
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            content.append(record);
+        Path file = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            ParallelCSVParser parser = new ParallelCSVParser(file, ',', StandardCharsets.UTF_8, 2, 1);
+            // Every split point, even one inside a quoted field, resynchronizes to a true record boundary
+            for (int target = 0; target < 3 * record.length(); target++)
+                assertEquals("Target " + target, 0, parser.resync(target) % record.length());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMisspeculatedBoundaries() throws IOException {
+        // Quoted fields that are longer than the scan bound make the resynchronization speculate wrongly
+        StringBuilder content = new StringBuilder("A,B\n");
+        for (int i = 0; i < 4; i++) {
+            content.append(i).append(",\"");
+            for (int j = 0; j < 20000; j++)
+                content.append("line ").append(j).append('\n');
+            content.append("\"\n");
+        }
+        Path file = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            ParallelCSVParser parser = new ParallelCSVParser(file, ',', StandardCharsets.UTF_8, 4, 1);
+            List<String[]> records = parser.parseAll(true);
+            assertEquals(4, records.size());
+            assertSameRecords(file, ',', true, records);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnterminatedQuoteFails() throws IOException {
+        StringBuilder content = new StringBuilder("A,B\n");
+        for (int i = 0; i < 1000; i++)
+            content.append(i).append(",b\n");
+        content.append("x,\"unterminated\n");
+        Path file = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            new ParallelCSVParser(file, ',', StandardCharsets.UTF_8, 4, 1).parseAll(true);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        Path file = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.write(file, "A;B\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals(0, new ParallelCSVParser(file, ';', StandardCharsets.UTF_8, 2, 1).parseAll(true).size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameRecords(Path file, char separator, boolean skipHeader, List<String[]> actual) {
+        List<String[]> expected = new ArrayList<>();
+        try (MappedCSVParser parser = new MappedCSVParser(file, separator, StandardCharsets.UTF_8)) {
+            if (skipHeader)
+                parser.skipRecord();
+            String[] record;
+            while ((record = parser.readNext()) != null)
+                expected.add(record);
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals("Record " + i, expected.get(i), actual.get(i));
+    }
+}
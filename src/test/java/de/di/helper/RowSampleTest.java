@@ -0,0 +1,93 @@
+package de.di.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RowSampleTest {
+
+    private static List<String[]> records(int numRecords) {
+        List<String[]> records = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++)
+            records.add(new String[]{String.valueOf(i)});
+        return records;
+    }
+
+    @Test
+    public void testFirst() {
+        List<String[]> sample = RowSample.first(10).draw(records(100).iterator());
+        assertEquals(10, sample.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals(String.valueOf(i), sample.get(i)[0]);
+
+        assertEquals(5, RowSample.first(10).draw(records(5).iterator()).size());
+    }
+
+    @Test
+    public void testReservoir() {
+        List<String[]> sample = RowSample.reservoir(50, 7).draw(records(1000).iterator());
+        assertEquals(50, sample.size());
+        for (int i = 1; i < sample.size(); i++)
+            assertTrue(Integer.parseInt(sample.get(i - 1)[0]) < Integer.parseInt(sample.get(i)[0]));
+
+        List<String[]> repeated = RowSample.reservoir(50, 7).draw(records(1000).iterator());
+        for (int i = 0; i < sample.size(); i++)
+            assertEquals(sample.get(i)[0], repeated.get(i)[0]);
+
+        assertEquals(20, RowSample.reservoir(50, 7).draw(records(20).iterator()).size());
+    }
+
+    @Test
+    public void testReservoirIsUniform() {
+        // Every record should end up in the sample with probability 10 / 100
+        int[] counts = new int[100];
+        for (int seed = 0; seed < 2000; seed++)
+            for (String[] record : RowSample.reservoir(10, seed).draw(records(100).iterator()))
+                counts[Integer.parseInt(record[0])]++;
+        for (int count : counts)
+            assertTrue("count " + count, count > 120 && count < 280);
+    }
+
+    @Test
+    public void testFraction() {
+        int size = RowSample.fraction(0.1, 3).draw(records(10000).iterator()).size();
+        assertTrue("size " + size, size > 850 && size < 1150);
+        assertEquals(0, RowSample.fraction(0, 3).draw(records(100).iterator()).size());
+        assertEquals(100, RowSample.fraction(1, 3).draw(records(100).iterator()).size());
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals("first:100", RowSample.parse("first:100").toString());
+        assertEquals("reservoir:100:42", RowSample.parse("reservoir:100").toString());
+        assertEquals("fraction:0.25:7", RowSample.parse("fraction:0.25:7").toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalid() {
+        RowSample.parse("fraction:2");
+    }
+
+    @Test
+    public void testInvalidSizes() {
+        for (String specification : new String[]{"first:-1", "reservoir:-5", "reservoir:-5:7", "fraction:-0.1", "fraction:NaN"}) {
+            try {
+                RowSample.parse(specification);
+                fail("Accepted " + specification);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testHugeReservoir() {
+        // The reservoir must not be allocated for numRows records up front
+        assertEquals(100, RowSample.reservoir(Integer.MAX_VALUE, 7).draw(records(100).iterator()).size());
+    }
+}
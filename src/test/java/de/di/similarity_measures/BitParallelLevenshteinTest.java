@@ -0,0 +1,96 @@
+package de.di.similarity_measures;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitParallelLevenshteinTest {
+
+    @Test
+    public void testSingleWordDistances() {
+        assertEquals(0, BitParallelLevenshtein.distance("", "", false));
+        assertEquals(3, BitParallelLevenshtein.distance("", "abc", false));
+        assertEquals(3, BitParallelLevenshtein.distance("kitten", "sitting", false));
+        assertEquals(4, BitParallelLevenshtein.distance("Integrations", "Itnegratoins", false));
+        assertEquals(2, BitParallelLevenshtein.distance("Integrations", "Itnegratoins", true));
+        assertEquals(1, BitParallelLevenshtein.distance("ab", "ba", true));
+        assertEquals(2, BitParallelLevenshtein.distance("Straße", "Strasse", false));
+        assertEquals(1, BitParallelLevenshtein.distance("日本語", "日本人", false));
+    }
+
+    @Test
+    public void testSupports() {
+        String longString = "a".repeat(65);
+        assertTrue(BitParallelLevenshtein.supports(longString, longString, false));
+        assertTrue(BitParallelLevenshtein.supports("a".repeat(64), longString, true));
+        assertFalse(BitParallelLevenshtein.supports(longString, longString, true));
+    }
+
+    @Test
+    public void testEquivalenceToDynamicProgramming() {
+        Random random = new Random(42);
+        for (int run = 0; run < 3000; run++) {
+            // Lengths around the word boundaries at 64 and 128 characters; small alphabets provoke many matches
+            String alphabet = (run % 3 == 0) ? "ab" : (run % 3 == 1) ? "abcdef" : "aäbΩc日";
+            String string1 = randomString(random, alphabet, random.nextInt(200));
+            String string2 = (run % 2 == 0) ? mutate(random, string1, alphabet) : randomString(random, alphabet, random.nextInt(200));
+
+            assertEquals(string1 + " / " + string2, distance(string1, string2, false), BitParallelLevenshtein.distance(string1, string2, false));
+            if (BitParallelLevenshtein.supports(string1, string2, true))
+                assertEquals(string1 + " / " + string2, distance(string1, string2, true), BitParallelLevenshtein.distance(string1, string2, true));
+        }
+    }
+
+    private static int distance(String string1, String string2, boolean withDamerau) {
+        int[][] matrix = new int[string1.length() + 1][string2.length() + 1];
+        for (int i = 0; i <= string1.length(); i++)
+            matrix[i][0] = i;
+        for (int j = 0; j <= string2.length(); j++)
+            matrix[0][j] = j;
+        for (int i = 1; i <= string1.length(); i++) {
+            for (int j = 1; j <= string2.length(); j++) {
+                int cost = (string1.charAt(i - 1) == string2.charAt(j - 1)) ? 0 : 1;
+                matrix[i][j] = Levenshtein.min(matrix[i - 1][j] + 1, matrix[i][j - 1] + 1, matrix[i - 1][j - 1] + cost);
+                if (withDamerau && i > 1 && j > 1
+                        && string1.charAt(i - 1) == string2.charAt(j - 2)
+                        && string1.charAt(i - 2) == string2.charAt(j - 1))
+                    matrix[i][j] = Math.min(matrix[i][j], matrix[i - 2][j - 2] + 1);
+            }
+        }
+        return matrix[string1.length()][string2.length()];
+    }
+
+    private static String mutate(Random random, String string, String alphabet) {
+        StringBuilder builder = new StringBuilder(string);
+        for (int edits = random.nextInt(8); edits > 0 && builder.length() > 1; edits--) {
+            int position = random.nextInt(builder.length() - 1);
+            switch (random.nextInt(4)) {
+                case 0:
+                    builder.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                    break;
+                case 1:
+                    builder.deleteCharAt(position);
+                    break;
+                case 2:
+                    builder.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                    break;
+                default:
+                    char c = builder.charAt(position);
+                    builder.setCharAt(position, builder.charAt(position + 1));
+                    builder.setCharAt(position + 1, c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.TokenProfile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the per-pair cost of the Jaccard similarity on pre-computed token profiles against the calculation on
+ * strings, which tokenizes and profiles both strings per call, and against the former set implementation that
+ * collected the tokens of both strings into hash sets and copied them for the intersection and union. Run with
+ * -prof gc to see the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JaccardBenchmark {
+
+    // The length of the compared strings.
+    @Param({"16", "64"})
+    public int length;
+
+    private String string1;
+    private String string2;
+    private TokenProfile profile1;
+    private TokenProfile profile2;
+    private Tokenizer tokenizer;
+    private Jaccard jaccard;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        char[] chars1 = new char[this.length];
+        char[] chars2 = new char[this.length];
+        for (int i = 0; i < this.length; i++) {
+            chars1[i] = (char) ('a' + random.nextInt(16));
+            chars2[i] = (random.nextInt(4) == 0) ? (char) ('a' + random.nextInt(16)) : chars1[i];
+        }
+        this.string1 = new String(chars1);
+        this.string2 = new String(chars2);
+        this.tokenizer = new Tokenizer(3, true);
+        this.jaccard = new Jaccard(this.tokenizer, false);
+        this.profile1 = this.jaccard.profile(this.string1);
+        this.profile2 = this.jaccard.profile(this.string2);
+    }
+
+    @Benchmark
+    public double profiles() {
+        return this.jaccard.calculate(this.profile1, this.profile2);
+    }
+
+    @Benchmark
+    public double strings() {
+        return this.jaccard.calculate(this.string1, this.string2);
+    }
+
+    @Benchmark
+    public double hashSets() {
+        return hashSetJaccard(this.tokenizer.tokenize(this.string1), this.tokenizer.tokenize(this.string2));
+    }
+
+    /**
+     * The former set implementation of Jaccard.calculate(String[], String[]), kept as baseline.
+     */
+    private static double hashSetJaccard(String[] strings1, String[] strings2) {
+        Set<String> set1 = Arrays.stream(strings1).collect(Collectors.toSet());
+        Set<String> set2 = Arrays.stream(strings2).collect(Collectors.toSet());
+
+        Set<String> intersection = new HashSet<>(set1);
+        intersection.retainAll(set2);
+        Set<String> union = new HashSet<>(set1);
+        union.addAll(set2);
+
+        return union.isEmpty() ? 1.0 : (double) intersection.size() / union.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JaccardBenchmark.class.getSimpleName()).build()).run();
+    }
+}
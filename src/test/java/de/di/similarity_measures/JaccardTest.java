@@ -1,6 +1,9 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.ProfileCache;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.helper.WordTokenization;
+import de.di.similarity_measures.structures.TokenProfile;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -76,4 +79,51 @@ public class JaccardTest {
         result = jaccard.calculate(new String[]{"a", "", "a", "b", "c", "", "d"}, new String[]{"a", "b", "", "b", "c", "f", ""});
         assertEquals((double) 4 / 6, result, 0.000001);
     }
+
+    @Test
+    public void testCalculateAll() {
+        String[] candidates = {"VL Big Data Integration 2022", "", "Tina Tim Tim", "VL Big Data Systems 2020"};
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(2, true), bagSemantics);
+            double[] results = jaccard.calculateAll("VL Big Data Systems 2020", candidates);
+            for (int i = 0; i < candidates.length; i++)
+                assertEquals(jaccard.calculate("VL Big Data Systems 2020", candidates[i]), results[i], 0.000001);
+
+            String[] column = {"a", "b", "b", "c"};
+            String[][] columns = {{"b", "c", "d"}, {}, {"a", "b", "b", "c"}};
+            results = jaccard.calculateAll(column, columns);
+            for (int i = 0; i < columns.length; i++)
+                assertEquals(jaccard.calculate(column, columns[i]), results[i], 0.000001);
+        }
+    }
+
+    @Test
+    public void testCorrectnessProfiles() {
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(2, false), bagSemantics);
+            TokenProfile profile1 = jaccard.profile("VL Big Data Systems 2020");
+            TokenProfile profile2 = jaccard.profile("VL Big Data Integration 2022");
+            assertEquals(bagSemantics ? (double) 15 / 50 : (double) 15 / 33, jaccard.calculate(profile1, profile2), 0.000001);
+            assertEquals(1, jaccard.calculate(jaccard.profile(null), jaccard.profile("")), 0.000001);
+        }
+    }
+
+    @Test
+    public void testCorrectnessWordTokens() {
+        Jaccard jaccard = new Jaccard(new Tokenizer(new WordTokenization(true)), false);
+        assertEquals(1, jaccard.calculate("Müller-Lüdenscheidt, Dr.", "dr. muller ludenscheidt"), 0.000001);
+        assertEquals((double) 2 / 4, jaccard.calculate("VL Big Data", "Big Data Systems"), 0.000001);
+    }
+
+    @Test
+    public void testCache() {
+        Jaccard jaccard = new Jaccard(new Tokenizer(2, true), false);
+        double expected = jaccard.calculate("VL Big Data Systems 2020", "VL Big Data Integration 2022");
+
+        jaccard.setCache(new ProfileCache<>(100));
+        for (int i = 0; i < 3; i++)
+            assertEquals(expected, jaccard.calculate("VL Big Data Systems 2020", "VL Big Data Integration 2022"), 0.000001);
+        assertEquals(4, jaccard.getCache().getHits());
+        assertEquals(2, jaccard.getCache().getMisses());
+    }
 }
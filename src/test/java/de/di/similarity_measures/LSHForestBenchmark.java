@@ -0,0 +1,99 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.LSHForest;
+import de.di.similarity_measures.helper.OnePermutationMinHash;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.MinHashSignatures;
+import de.di.similarity_measures.structures.SimilarRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-query cost of a top-k query on the LSH forest against a full scan that compares the query signature
+ * to the stored signatures of all records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LSHForestBenchmark {
+
+    private static final String[] WORDS = {"Big", "Data", "Systems", "Integration", "Profiling", "Matching", "Schema",
+            "Duplicate", "Detection", "Similarity", "Measures", "Databases", "Query", "Processing", "Cloud", "Stream"};
+
+    // The number of indexed records.
+    @Param({"10000", "100000"})
+    public int numRecords;
+
+    // The number of records to find per query.
+    @Param({"10"})
+    public int k;
+
+    private MinHashSignatures signatures;
+    private LSHForest forest;
+    private int[] queryIndexes;
+    private int[][] querySignatures;
+    private int query = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        String[] values = new String[this.numRecords];
+        for (int i = 0; i < values.length; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j < 4; j++)
+                value.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            values[i] = value.append(random.nextInt(1000)).toString();
+        }
+
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(128, 1));
+        this.signatures = lsh.signAll(values);
+        this.forest = new LSHForest(128);
+        for (String value : values)
+            this.forest.insert(lsh.signature(value));
+
+        this.queryIndexes = new int[100];
+        this.querySignatures = new int[this.queryIndexes.length][];
+        for (int i = 0; i < this.queryIndexes.length; i++) {
+            this.queryIndexes[i] = random.nextInt(values.length);
+            this.querySignatures[i] = lsh.signature(values[this.queryIndexes[i]]);
+        }
+    }
+
+    @Benchmark
+    public List<SimilarRecord> forestQuery() {
+        this.query = (this.query + 1) % this.queryIndexes.length;
+        return this.forest.query(this.querySignatures[this.query], this.k);
+    }
+
+    @Benchmark
+    public double[] fullScan() {
+        // Keep the k largest similarities in ascending order, as a ranked scan over all records would
+        this.query = (this.query + 1) % this.queryIndexes.length;
+        double[] best = new double[this.k];
+        for (int i = 0; i < this.numRecords; i++) {
+            double similarity = this.signatures.similarity(this.queryIndexes[this.query], i);
+            if (similarity <= best[0])
+                continue;
+            int position = 0;
+            while (position + 1 < best.length && best[position + 1] < similarity) {
+                best[position] = best[position + 1];
+                position++;
+            }
+            best[position] = similarity;
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LSHForestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package de.di.similarity_measures;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call cost of the Levenshtein similarity against the former implementation that allocated three
+ * lines per call, copied them after every row and took the minimum through a varargs stream, against the bounded
+ * calculation with a maximum distance of an eighth of the string length, and against the bounded calculation without
+ * a bound, i.e., the dynamic programming with reusable lines that the bit-parallel engine replaces. Run with -prof gc
+ * to see the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LevenshteinBenchmark {
+
+    // The length of the compared strings.
+    @Param({"8", "32", "128"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean withDamerau;
+
+    private String string1;
+    private String string2;
+    private Levenshtein levenshtein;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        char[] chars1 = new char[this.length];
+        char[] chars2 = new char[this.length];
+        for (int i = 0; i < this.length; i++) {
+            chars1[i] = (char) ('a' + random.nextInt(8));
+            chars2[i] = (random.nextInt(4) == 0) ? (char) ('a' + random.nextInt(8)) : chars1[i];
+        }
+        this.string1 = new String(chars1);
+        this.string2 = new String(chars2);
+        this.levenshtein = new Levenshtein(this.withDamerau);
+    }
+
+    @Benchmark
+    public double similarity() {
+        return this.levenshtein.calculate(this.string1, this.string2);
+    }
+
+    @Benchmark
+    public int boundedBand() {
+        return this.levenshtein.boundedDistance(this.string1, this.string2, this.length / 8);
+    }
+
+    @Benchmark
+    public int dynamicProgramming() {
+        return this.levenshtein.boundedDistance(this.string1, this.string2, this.length);
+    }
+
+    @Benchmark
+    public double allocatingLines() {
+        return allocatingLevenshtein(this.string1, this.string2, this.withDamerau);
+    }
+
+    private static int min(int... numbers) {
+        return Arrays.stream(numbers).min().orElse(Integer.MAX_VALUE);
+    }
+
+    /**
+     * The former implementation of Levenshtein.calculate(String, String), kept as baseline.
+     */
+    private static double allocatingLevenshtein(String string1, String string2, boolean withDamerau) {
+        int[] upperupperLine = new int[string1.length() + 1];
+        int[] upperLine = new int[string1.length() + 1];
+        int[] lowerLine = new int[string1.length() + 1];
+        for (int i = 0; i <= string1.length(); i++)
+            upperLine[i] = i;
+
+        for (int j = 1; j <= string2.length(); j++) {
+            lowerLine[0] = j;
+            for (int i = 1; i <= string1.length(); i++) {
+                int cost = (string1.charAt(i - 1) == string2.charAt(j - 1)) ? 0 : 1;
+                lowerLine[i] = min(lowerLine[i - 1] + 1, upperLine[i] + 1, upperLine[i - 1] + cost);
+                if (withDamerau && i > 1 && j > 1
+                        && string1.charAt(i - 1) == string2.charAt(j - 2)
+                        && string1.charAt(i - 2) == string2.charAt(j - 1))
+                    lowerLine[i] = Math.min(lowerLine[i], upperupperLine[i - 2] + 1);
+            }
+            System.arraycopy(upperLine, 0, upperupperLine, 0, upperLine.length);
+            System.arraycopy(lowerLine, 0, upperLine, 0, lowerLine.length);
+        }
+
+        int distance = upperLine[string1.length()];
+        int maxLength = Math.max(string1.length(), string2.length());
+        return (maxLength == 0) ? 1.0 : 1.0 - ((double) distance / maxLength);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LevenshteinBenchmark.class.getSimpleName()).build()).run();
+    }
+}
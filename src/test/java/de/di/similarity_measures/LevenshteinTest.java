@@ -1,7 +1,11 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.Tokenizer;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 
 public class LevenshteinTest {
@@ -62,6 +66,10 @@ public class LevenshteinTest {
         levenshtein = new Levenshtein(false);
         result = levenshtein.calculate(new String[]{"a", "b", "a", "b", "c", "c", "d"}, new String[]{"a", "b", "a", "b", "c", "f", "e"});
         assertEquals(1 - (double) 2 / 7, result, 0.000001);
+
+        // Tokens with equal String.hashCode()s are still different tokens
+        result = levenshtein.calculate(new String[]{"Aa123", "x"}, new String[]{"BB123", "x"});
+        assertEquals(0.5, result, 0.000001);
     }
 
     @Test
@@ -77,4 +85,73 @@ public class LevenshteinTest {
         result = levenshtein.calculate(new String[]{"a", "", "a", "b", "c", "c", ""}, new String[]{"a", "", "a", "b", "c", "f", "e"});
         assertEquals(1 - (double) 2 / 7, result, 0.000001);
     }
+
+    @Test
+    public void testBoundedDistance() {
+        Random random = new Random(42);
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            for (int run = 0; run < 2000; run++) {
+                String string1 = randomString(random, random.nextInt(12));
+                String string2 = randomString(random, random.nextInt(12));
+                int maxLength = Math.max(string1.length(), string2.length());
+                int distance = (int) Math.round((1 - levenshtein.calculate(string1, string2)) * maxLength);
+
+                for (int k = 0; k <= maxLength + 1; k++) {
+                    int expected = (distance <= k) ? distance : k + 1;
+                    assertEquals(string1 + " / " + string2 + " / k=" + k, expected, levenshtein.boundedDistance(string1, string2, k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCorrectnessStringsWithThreshold() {
+        Levenshtein levenshtein = new Levenshtein(true);
+        assertEquals(1 - (double) 2 / 12, levenshtein.calculate("Integrations", "Itnegratoins", 0.8), 0.000001);
+        assertEquals(0, levenshtein.calculate("Integrations", "Itnegratoins", 0.9), 0.000001);
+        assertEquals(1 - (double) 3 / 10, new Levenshtein(false).calculate("abcdefghij", "abcdefgxyz", 0.7), 0.000001);
+        assertEquals(0, levenshtein.calculate("Big Data Systems", "Big", 0.5), 0.000001);
+        assertEquals(1, levenshtein.calculate("", "", 1.0), 0.000001);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            builder.append((char) ('a' + random.nextInt(3)));
+        return builder.toString();
+    }
+
+    @Test
+    public void testCalculateAll() {
+        Random random = new Random(42);
+        String[] candidates = new String[200];
+        for (int i = 0; i < candidates.length; i++)
+            candidates[i] = randomString(random, random.nextInt(150));
+
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            for (int length : new int[]{0, 10, 64, 65, 130}) {
+                String query = randomString(random, length);
+                double[] results = levenshtein.calculateAll(query, candidates);
+                for (int i = 0; i < candidates.length; i++)
+                    assertEquals(query + " / " + candidates[i], levenshtein.calculate(query, candidates[i]), results[i], 0.000001);
+            }
+        }
+    }
+
+    @Test
+    public void testCorrectnessCodes() {
+        Tokenizer tokenizer = new Tokenizer(2, false);
+        LongArrayList codes1 = new LongArrayList();
+        LongArrayList codes2 = new LongArrayList();
+        tokenizer.encode("Integrations", codes1);
+        tokenizer.encode("Itnegratoins", codes2);
+
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            double expected = levenshtein.calculate(tokenizer.tokenize("Integrations"), tokenizer.tokenize("Itnegratoins"));
+            assertEquals(expected, levenshtein.calculate(codes1.elements(), codes1.size(), codes2.elements(), codes2.size()), 0.000001);
+        }
+    }
 }
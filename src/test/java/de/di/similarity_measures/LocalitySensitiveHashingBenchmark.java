@@ -0,0 +1,85 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.OnePermutationMinHash;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.helper.UniversalMinHash;
+import de.di.similarity_measures.structures.MinHashSignatures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-pair cost of the LSH similarity with the comparator-based MinHash functions, the universal and the
+ * one-permutation MinHash schemes, which all sign both strings per call, against the comparison of two stored
+ * signatures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LocalitySensitiveHashingBenchmark {
+
+    // The length of the compared strings.
+    @Param({"16", "64"})
+    public int length;
+
+    // The number of signature components.
+    @Param({"64"})
+    public int numHashFunctions;
+
+    private String string1;
+    private String string2;
+    private LocalitySensitiveHashing comparatorLsh;
+    private LocalitySensitiveHashing universalLsh;
+    private LocalitySensitiveHashing onePermutationLsh;
+    private MinHashSignatures signatures;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        char[] chars1 = new char[this.length];
+        char[] chars2 = new char[this.length];
+        for (int i = 0; i < this.length; i++) {
+            chars1[i] = (char) ('a' + random.nextInt(16));
+            chars2[i] = (random.nextInt(4) == 0) ? (char) ('a' + random.nextInt(16)) : chars1[i];
+        }
+        this.string1 = new String(chars1);
+        this.string2 = new String(chars2);
+
+        Tokenizer tokenizer = new Tokenizer(3, true);
+        this.comparatorLsh = new LocalitySensitiveHashing(tokenizer, this.numHashFunctions);
+        this.universalLsh = new LocalitySensitiveHashing(tokenizer, new UniversalMinHash(this.numHashFunctions, 1));
+        this.onePermutationLsh = new LocalitySensitiveHashing(tokenizer, new OnePermutationMinHash(this.numHashFunctions, 1));
+        this.signatures = this.onePermutationLsh.signAll(new String[]{this.string1, this.string2});
+    }
+
+    @Benchmark
+    public double comparatorMinHash() {
+        return this.comparatorLsh.calculate(this.string1, this.string2);
+    }
+
+    @Benchmark
+    public double universalMinHash() {
+        return this.universalLsh.calculate(this.string1, this.string2);
+    }
+
+    @Benchmark
+    public double onePermutationMinHash() {
+        return this.onePermutationLsh.calculate(this.string1, this.string2);
+    }
+
+    @Benchmark
+    public double storedSignatures() {
+        return this.signatures.similarity(0, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocalitySensitiveHashingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
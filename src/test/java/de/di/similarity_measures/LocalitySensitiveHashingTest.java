@@ -1,8 +1,15 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.OnePermutationMinHash;
+import de.di.similarity_measures.helper.ProfileCache;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.helper.UniversalMinHash;
+import de.di.similarity_measures.structures.MinHashSignatures;
 import org.junit.Test;
 
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class LocalitySensitiveHashingTest {
@@ -36,4 +43,77 @@ public class LocalitySensitiveHashingTest {
         result = lsh.calculate(new String[]{"aa", "", "ab", "ba", "cb", "", "da", "tt", "at"}, new String[]{"", "bb", "ab", "ba", "cb", "fa", "eb", "tt", "at"});
         assertEquals((double) 4 / 20, result, 0.000001);
     }
+
+    @Test
+    public void testCalculateAll() {
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(2, true), 20);
+        String[] candidates = {"Data Integration", "", "Big Data Systems"};
+        double[] results = lsh.calculateAll("Big Data Systems", candidates);
+        for (int i = 0; i < candidates.length; i++)
+            assertEquals(lsh.calculate("Big Data Systems", candidates[i]), results[i], 0.000001);
+        assertEquals((double) 6 / 20, results[0], 0.000001);
+    }
+
+    @Test
+    public void testCache() {
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(2, true), 20);
+        lsh.setCache(new ProfileCache<>(100));
+        double[] results = lsh.calculateAll("Big Data Systems", new String[]{"Data Integration", "Big Data Systems"});
+        assertEquals((double) 6 / 20, results[0], 0.000001);
+        assertEquals(1, results[1], 0.000001);
+        assertEquals((double) 6 / 20, lsh.calculate("Big Data Systems", "Data Integration"), 0.000001);
+        assertEquals(3, lsh.getCache().getHits());
+        assertEquals(2, lsh.getCache().getMisses());
+    }
+
+    @Test
+    public void testCachedSignatureCopies() {
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(2, true), 20);
+        lsh.setCache(new ProfileCache<>(100));
+        int[] signature = lsh.signature("Big Data Systems");
+        int[] expected = signature.clone();
+        Arrays.fill(signature, 0);
+        assertArrayEquals(expected, lsh.signature("Big Data Systems"));
+        assertEquals(1, lsh.getCache().getHits());
+    }
+
+    @Test
+    public void testUniversalMinHash() {
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(2, true), new UniversalMinHash(512, 1));
+        Jaccard jaccard = new Jaccard(new Tokenizer(2, true), false);
+        assertEquals(jaccard.calculate("Big Data Systems", "Data Integration"), lsh.calculate("Big Data Systems", "Data Integration"), 0.05);
+        assertEquals(1, lsh.calculate("Big Data Systems", "Big Data Systems"), 0.000001);
+        assertEquals(1, lsh.calculate("", ""), 0.000001);
+
+        String[] tokens1 = {"aa", "ba", "ab", "ba", "cb", "cb", "da", "tt", "at"};
+        String[] tokens2 = {"aa", "bb", "ab", "ba", "cb", "fa", "eb", "tt", "at"};
+        assertEquals(jaccard.calculate(tokens1, tokens2), lsh.calculate(tokens1, tokens2), 0.05);
+    }
+
+    @Test
+    public void testSignAll() {
+        String[] values = {"Big Data Systems", "Data Integration", "", "Big Data Systems"};
+        for (LocalitySensitiveHashing lsh : new LocalitySensitiveHashing[]{new LocalitySensitiveHashing(new Tokenizer(2, true), 20),
+                new LocalitySensitiveHashing(new Tokenizer(2, true), new OnePermutationMinHash(128, 1))}) {
+            MinHashSignatures signatures = lsh.signAll(values);
+            assertEquals(values.length, signatures.getNumSignatures());
+            assertEquals(lsh.getSignatureLength(), signatures.getSignatureLength());
+            for (int i = 0; i < values.length; i++)
+                for (int j = 0; j < values.length; j++)
+                    assertEquals(lsh.calculate(values[i], values[j]), signatures.similarity(i, j), 0.000001);
+        }
+    }
+
+    @Test
+    public void testUnicode() {
+        String[] tokens1 = {"xä", "xö"};
+        String[] tokens2 = {"xö", "xü"};
+
+        // The ASCII variant picks the first token of both lists for every function, although they share one of three
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(2, false), 200);
+        assertEquals(0, lsh.calculate(tokens1, tokens2), 0.000001);
+
+        lsh = new LocalitySensitiveHashing(new Tokenizer(2, false), 200, true);
+        assertEquals((double) 1 / 3, lsh.calculate(tokens1, tokens2), 0.1);
+    }
 }
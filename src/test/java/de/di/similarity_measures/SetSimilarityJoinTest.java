@@ -0,0 +1,83 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.SimilarPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SetSimilarityJoinTest {
+
+    @Test
+    public void testJoin() {
+        SetSimilarityJoin join = new SetSimilarityJoin(new Tokenizer(2, false), false, 0.5);
+        List<SimilarPair> pairs = join.join(
+                new String[]{"Big Data Systems", "Data Integration", ""},
+                new String[]{"Data Integrations", "Big Data System", "Databases", null});
+
+        assertEquals(3, pairs.size());
+        assertEquals(new SimilarPair(0, 1, 0), pairs.get(0));
+        assertEquals(new SimilarPair(1, 0, 0), pairs.get(1));
+        assertEquals(new SimilarPair(2, 3, 0), pairs.get(2));
+        assertEquals(1.0, pairs.get(2).getSimilarity(), 0.000001);
+    }
+
+    @Test
+    public void testEquivalenceToNestedLoop() {
+        Random random = new Random(42);
+        String[] values1 = randomValues(random, 300);
+        String[] values2 = randomValues(random, 200);
+
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            for (double threshold : new double[]{0.1, 0.3, 0.5, 0.7, 1.0}) {
+                Tokenizer tokenizer = new Tokenizer(2, true);
+                Jaccard jaccard = new Jaccard(tokenizer, bagSemantics);
+                SetSimilarityJoin join = new SetSimilarityJoin(tokenizer, bagSemantics, threshold);
+                String message = "bag=" + bagSemantics + ", threshold=" + threshold;
+
+                assertPairs(message, nestedLoop(jaccard, values1, values2, threshold, false), join.join(values1, values2));
+                assertPairs(message, nestedLoop(jaccard, values1, values1, threshold, true), join.selfJoin(values1));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroThreshold() {
+        new SetSimilarityJoin(new Tokenizer(2, false), false, 0);
+    }
+
+    private static void assertPairs(String message, List<SimilarPair> expected, List<SimilarPair> pairs) {
+        assertEquals(message, expected, pairs);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(message, expected.get(i).getSimilarity(), pairs.get(i).getSimilarity(), 0.000001);
+    }
+
+    private static List<SimilarPair> nestedLoop(Jaccard jaccard, String[] values1, String[] values2, double threshold, boolean self) {
+        List<SimilarPair> pairs = new ArrayList<>();
+        for (int i = 0; i < values1.length; i++) {
+            for (int j = self ? i + 1 : 0; j < values2.length; j++) {
+                double similarity = jaccard.calculate(values1[i], values2[j]);
+                if (similarity >= threshold)
+                    pairs.add(new SimilarPair(i, j, similarity));
+            }
+        }
+        return pairs;
+    }
+
+    private static String[] randomValues(Random random, int numValues) {
+        // Few short words over a small alphabet, so that many pairs are similar at every threshold
+        String[] words = {"data", "big", "dat", "base", "system", "bigdata", "aa", "ab"};
+        String[] values = new String[numValues];
+        for (int i = 0; i < numValues; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int w = random.nextInt(4); w > 0; w--)
+                builder.append(words[random.nextInt(words.length)]).append(' ');
+            values[i] = builder.toString().trim();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,76 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.LocalitySensitiveHashing;
+import de.di.similarity_measures.structures.MinHashSignatures;
+import de.di.similarity_measures.structures.SimilarPair;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BandedLSHIndexTest {
+
+    @Test
+    public void testForThreshold() {
+        for (double threshold : new double[]{0.3, 0.5, 0.8}) {
+            BandedLSHIndex index = BandedLSHIndex.forThreshold(threshold, 128);
+            assertTrue(index.getNumBands() * index.getNumRows() <= 128);
+            assertEquals(threshold, index.getThreshold(), 0.05);
+        }
+    }
+
+    @Test
+    public void testCandidatePairs() {
+        String[] values = {"Big Data Systems", "Data Integration", "Big Data System", "Integration of Data", "Big Data Systems"};
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(128, 1));
+        MinHashSignatures signatures = lsh.signAll(values);
+
+        List<SimilarPair> pairs = BandedLSHIndex.forThreshold(0.7, 128).candidatePairs(signatures);
+        assertEquals(List.of(new SimilarPair(0, 2, 0), new SimilarPair(0, 4, 0), new SimilarPair(2, 4, 0)), pairs);
+        for (SimilarPair pair : pairs)
+            assertEquals(signatures.similarity(pair.getIndex1(), pair.getIndex2()), pair.getSimilarity(), 0.000001);
+
+        // Buckets that are too large report only the pairs of adjacent records
+        BandedLSHIndex index = new BandedLSHIndex(16, 8);
+        index.setMaxBucketSize(2);
+        assertEquals(List.of(new SimilarPair(0, 4, 0), new SimilarPair(1, 2, 0), new SimilarPair(2, 3, 0)),
+                index.candidatePairs(lsh.signAll(new String[]{"abc", "xyz", "xyz", "xyz", "abc"})));
+        assertEquals(16, index.getNumOversizedBuckets());
+    }
+
+    @Test
+    public void testDefaultBucketSizeLimit() {
+        // 1500 equal values form one bucket in every band, which exceeds the default limit, so that only their
+        // adjacent pairs are reported
+        String[] values = new String[1502];
+        Arrays.fill(values, "equal");
+        values[1500] = "Big Data Systems";
+        values[1501] = "Big Data Systems";
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(128, 1));
+        BandedLSHIndex index = BandedLSHIndex.forThreshold(0.7, 128);
+        assertEquals(BandedLSHIndex.DEFAULT_MAX_BUCKET_SIZE, index.getMaxBucketSize());
+        List<SimilarPair> pairs = index.candidatePairs(lsh.signAll(values));
+        assertEquals(1500, pairs.size());
+        for (int i = 0; i < 1499; i++)
+            assertEquals(new SimilarPair(i, i + 1, 1), pairs.get(i));
+        assertEquals(new SimilarPair(1500, 1501, 1), pairs.get(1499));
+        assertEquals(index.getNumBands(), index.getNumOversizedBuckets());
+
+        index.setMaxBucketSize(Integer.MAX_VALUE);
+        assertEquals(1500 * 1499 / 2 + 1, index.candidatePairs(lsh.signAll(values)).size());
+        assertEquals(0, index.getNumOversizedBuckets());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBucketSize() {
+        new BandedLSHIndex(16, 8).setMaxBucketSize(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooShortSignatures() {
+        new BandedLSHIndex(20, 8).candidatePairs(new MinHashSignatures(2, 128));
+    }
+}
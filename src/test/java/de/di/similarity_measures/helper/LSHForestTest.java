@@ -0,0 +1,106 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.LocalitySensitiveHashing;
+import de.di.similarity_measures.structures.MinHashSignatures;
+import de.di.similarity_measures.structures.SimilarRecord;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LSHForestTest {
+
+    private static final String[] WORDS = {"Big", "Data", "Systems", "Integration", "Profiling", "Matching", "Schema",
+            "Duplicate", "Detection", "Similarity", "Measures", "Databases", "Query", "Processing", "Cloud", "Stream"};
+
+    @Test
+    public void testIncrementalInserts() {
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(64, 1));
+        LSHForest forest = new LSHForest(64);
+        assertEquals(8, forest.getNumTrees());
+        assertEquals(0, forest.query(lsh.signature("Big Data Systems"), 5).size());
+
+        assertEquals(0, forest.insert(lsh.signature("Big Data Systems")));
+        assertEquals(1, forest.insert(lsh.signature("Data Integration")));
+        List<SimilarRecord> result = forest.query(lsh.signature("Big Data Systems"), 5);
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0).getIndex());
+        assertEquals(1, result.get(0).getSimilarity(), 0.000001);
+
+        // Inserts after queries are found as well, also after the buffers have been merged into the trees
+        for (int i = 0; i < 200; i++)
+            forest.insert(lsh.signature("Record " + i));
+        assertEquals(202, forest.size());
+        assertEquals(151, forest.query(lsh.signature("Record 149"), 1).get(0).getIndex());
+        assertEquals(0, forest.query(lsh.signature("Big Data Systems"), 1).get(0).getIndex());
+    }
+
+    @Test
+    public void testRecall() {
+        Random random = new Random(42);
+        String[] values = new String[2000];
+        for (int i = 0; i < values.length; i++)
+            values[i] = IntStream.range(0, 4).mapToObj(j -> WORDS[random.nextInt(WORDS.length)]).collect(Collectors.joining(" ")) + " " + random.nextInt(100);
+
+        LocalitySensitiveHashing lsh = new LocalitySensitiveHashing(new Tokenizer(3, true), new OnePermutationMinHash(128, 1));
+        MinHashSignatures signatures = lsh.signAll(values);
+        LSHForest forest = new LSHForest(128);
+        for (String value : values)
+            forest.insert(lsh.signature(value));
+
+        // Most of the returned records should be as similar as the tenth most similar record of a full scan
+        int numFound = 0;
+        for (int q = 0; q < values.length; q += 100) {
+            int query = q;
+            double[] similarities = IntStream.range(0, values.length).mapToDouble(i -> signatures.similarity(query, i)).sorted().toArray();
+            double tenthSimilarity = similarities[values.length - 10];
+
+            List<SimilarRecord> result = forest.query(lsh.signature(values[q]), 10);
+            assertEquals(10, result.size());
+            for (int i = 0; i < result.size(); i++) {
+                assertEquals(signatures.similarity(q, result.get(i).getIndex()), result.get(i).getSimilarity(), 0.000001);
+                if (i > 0)
+                    assertTrue(result.get(i - 1).getSimilarity() >= result.get(i).getSimilarity());
+                if (result.get(i).getSimilarity() >= tenthSimilarity)
+                    numFound++;
+            }
+        }
+        assertTrue("found " + numFound, numFound >= 0.8 * 200);
+    }
+
+    @Test
+    public void testTreesShareCandidates() {
+        // Fifty records match the query in the first tree only, the most similar record in the second tree only;
+        // ten candidates from the first tree alone would miss it
+        LSHForest forest = new LSHForest(16, 2);
+        int[] query = new int[16];
+        for (int i = 0; i < 50; i++) {
+            int[] signature = new int[16];
+            Arrays.fill(signature, 8, 16, i + 1);
+            forest.insert(signature);
+        }
+        int[] similar = new int[16];
+        similar[0] = 1;
+        assertEquals(50, forest.insert(similar));
+
+        List<SimilarRecord> result = forest.query(query, 1, 10);
+        assertEquals(50, result.get(0).getIndex());
+        assertEquals(15.0 / 16, result.get(0).getSimilarity(), 0.000001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidK() {
+        new LSHForest(64).query(new int[64], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyTrees() {
+        new LSHForest(64, 9);
+    }
+}
@@ -2,7 +2,11 @@ package de.di.similarity_measures.helper;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class MinHashTest {
 
@@ -17,4 +21,39 @@ public class MinHashTest {
 
         assertEquals("bac", minHash.hash(new String[]{"abc", "bca", "bac", "xyz", "bca"}));
     }
+
+    @Test
+    public void testMinHashingCodes() {
+        MinHash minHash1 = new MinHash(1);
+        MinHash minHash2 = new MinHash(2);
+        long[] codes = {5, 17, 42, 99};
+        long[] permuted = {99, 42, 5, 17, 5};
+
+        assertEquals(minHash1.hash(codes, codes.length), minHash1.hash(permuted, permuted.length));
+        assertEquals(minHash1.hash(codes, 1), minHash1.hash(new long[]{5}, 1));
+        assertEquals(Long.MAX_VALUE, minHash1.hash(codes, 0));
+
+        assertNotEquals(minHash1.hash(codes, codes.length), minHash2.hash(codes, codes.length));
+    }
+
+    @Test
+    public void testUnicodeMinHashing() {
+        String[] tokens = {"xä", "xö", "xü"};
+        String[] permuted = {"xü", "xä", "xö"};
+
+        // The ASCII variant ranks all non-ASCII chars equally, so that it always picks the first of such tokens
+        for (long seed = 0; seed < 10; seed++) {
+            assertEquals("xä", new MinHash(seed).hash(tokens));
+            assertEquals("xü", new MinHash(seed).hash(permuted));
+        }
+
+        // The Unicode variant orders the tokens independently of their positions and differently for different seeds
+        Set<String> minima = new HashSet<>();
+        for (long seed = 0; seed < 10; seed++) {
+            MinHash minHash = new MinHash(seed, true);
+            assertEquals(minHash.hash(tokens), minHash.hash(permuted));
+            minima.add(minHash.hash(tokens));
+        }
+        assertEquals(3, minima.size());
+    }
 }
@@ -0,0 +1,44 @@
+package de.di.similarity_measures.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OnePermutationMinHashTest {
+
+    @Test
+    public void testSignature() {
+        OnePermutationMinHash minHash = new OnePermutationMinHash(64, 1);
+        long[] codes = {5, 17, 42, 99};
+        long[] permuted = {99, 42, 5, 17, 5};
+
+        int[] signature = minHash.signature(codes, codes.length);
+        assertEquals(64, signature.length);
+        assertArrayEquals(signature, minHash.signature(permuted, permuted.length));
+        assertEquals(Integer.MAX_VALUE, minHash.signature(codes, 0)[0]);
+
+        // Densification fills all bins, although at most four of them received a token
+        for (int component : signature)
+            assertTrue(component != Integer.MAX_VALUE);
+        assertEquals(1, MinHashScheme.similarity(minHash.signature(codes, 1), minHash.signature(new long[]{5}, 1)), 0.000001);
+    }
+
+    @Test
+    public void testSimilarityEstimate() {
+        // Small sets leave most bins empty and exercise the densification
+        for (int size : new int[]{20, 1000}) {
+            long[] codes1 = new long[size];
+            long[] codes2 = new long[size];
+            for (int i = 0; i < size; i++) {
+                codes1[i] = i * 0x9E3779B97F4A7C15L;
+                codes2[i] = (i + size / 2) * 0x9E3779B97F4A7C15L;
+            }
+
+            OnePermutationMinHash minHash = new OnePermutationMinHash(512, 7);
+            double estimate = MinHashScheme.similarity(minHash.signature(codes1, size), minHash.signature(codes2, size));
+            assertEquals((double) (size / 2) / (size + size / 2), estimate, 0.1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.Jaccard;
+import de.di.similarity_measures.Levenshtein;
+import de.di.similarity_measures.SimilarityMeasure;
+import de.di.similarity_measures.structures.SimilarPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelSimilarityMatrixTest {
+
+    @Test
+    public void testMatrixEqualsPairwise() {
+        Random random = new Random(42);
+        String[] strings1 = randomStrings(random, 150);
+        String[] strings2 = randomStrings(random, 70);
+
+        for (SimilarityMeasure measure : new SimilarityMeasure[]{new Levenshtein(false), new Jaccard(new Tokenizer(2, true), false)}) {
+            for (int numThreads : new int[]{1, 4}) {
+                try (ParallelSimilarityMatrix parallelMatrix = new ParallelSimilarityMatrix(measure, numThreads)) {
+                    double[][] matrix = parallelMatrix.calculate(strings1, strings2);
+                    assertEquals(strings1.length, matrix.length);
+                    for (int i = 0; i < strings1.length; i++)
+                        for (int j = 0; j < strings2.length; j++)
+                            assertEquals(measure.calculate(strings1[i], strings2[j]), matrix[i][j], 0.000001);
+
+                    // A single row is cut into column bands, which must be stitched back in place
+                    String[] candidates = randomStrings(random, 1000);
+                    double[][] row = parallelMatrix.calculate(new String[]{strings1[0]}, candidates);
+                    assertArrayEquals(measure.calculateAll(strings1[0], candidates), row[0], 0.000001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testListMatrix() {
+        Jaccard jaccard = new Jaccard(new Tokenizer(1, false), false);
+        String[][] columns1 = {{"a", "b"}, {"c"}, {}};
+        String[][] columns2 = {{"a"}, {"b", "c"}};
+        double[][] matrix;
+        try (ParallelSimilarityMatrix parallelMatrix = new ParallelSimilarityMatrix(jaccard, 3)) {
+            matrix = parallelMatrix.calculate(columns1, columns2);
+        }
+        assertArrayEquals(new double[]{0.5, 1.0 / 3}, matrix[0], 0.000001);
+        assertArrayEquals(new double[]{0, 0.5}, matrix[1], 0.000001);
+        assertArrayEquals(new double[]{0, 0}, matrix[2], 0.000001);
+
+        matrix = new ParallelSimilarityMatrix(jaccard).calculate(columns1, new String[0][]);
+        assertEquals(3, matrix.length);
+        assertEquals(0, matrix[0].length);
+    }
+
+    @Test
+    public void testPairsAboveThreshold() {
+        Random random = new Random(7);
+        String[] strings1 = randomStrings(random, 200);
+        String[] strings2 = randomStrings(random, 200);
+        Levenshtein levenshtein = new Levenshtein(true);
+
+        List<SimilarPair> expected = new ArrayList<>();
+        for (int i = 0; i < strings1.length; i++) {
+            for (int j = 0; j < strings2.length; j++) {
+                double similarity = levenshtein.calculate(strings1[i], strings2[j]);
+                if (similarity >= 0.6)
+                    expected.add(new SimilarPair(i, j, similarity));
+            }
+        }
+
+        try (ParallelSimilarityMatrix parallelMatrix = new ParallelSimilarityMatrix(levenshtein, 4)) {
+            assertEquals(expected, parallelMatrix.calculatePairs(strings1, strings2, 0.6));
+            // A single query is cut into column bands, whose indexes must refer to the full candidate array
+            List<SimilarPair> single = new ArrayList<>();
+            for (SimilarPair pair : expected)
+                if (pair.getIndex1() == 0)
+                    single.add(pair);
+            assertEquals(single, parallelMatrix.calculatePairs(new String[]{strings1[0]}, strings2, 0.6));
+        }
+    }
+
+    @Test
+    public void testQueryPreparedOncePerRow() {
+        AtomicInteger numQueries = new AtomicInteger();
+        SimilarityMeasure counting = new Levenshtein(false) {
+            @Override
+            public double[] calculateAll(String query, String[] candidates, int from, int to) {
+                numQueries.incrementAndGet();
+                return super.calculateAll(query, candidates, from, to);
+            }
+        };
+        Random random = new Random(3);
+        try (ParallelSimilarityMatrix parallelMatrix = new ParallelSimilarityMatrix(counting, 4)) {
+            // Enough rows for all threads, so no row is cut, even though the matrix is tiny
+            parallelMatrix.calculate(randomStrings(random, 40), randomStrings(random, 3));
+            assertEquals(40, numQueries.get());
+        }
+    }
+
+    private static String[] randomStrings(Random random, int numStrings) {
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++) {
+            // Skewed lengths, so that the tiles differ in cost
+            StringBuilder builder = new StringBuilder();
+            int length = (random.nextInt(10) == 0) ? 80 + random.nextInt(40) : random.nextInt(8);
+            for (int j = 0; j < length; j++)
+                builder.append((char) ('a' + random.nextInt(3)));
+            strings[i] = builder.toString();
+        }
+        return strings;
+    }
+}
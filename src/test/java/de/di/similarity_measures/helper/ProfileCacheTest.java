@@ -0,0 +1,75 @@
+package de.di.similarity_measures.helper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProfileCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        ProfileCache<String[]> cache = new ProfileCache<>(10);
+        AtomicInteger numProfiled = new AtomicInteger();
+        String[] profile = cache.get("Data", s -> new String[]{s + numProfiled.incrementAndGet()});
+
+        assertSame(profile, cache.get("Data", s -> new String[]{s + numProfiled.incrementAndGet()}));
+        assertEquals(1, numProfiled.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.hitRate(), 0.000001);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ProfileCache<Integer> cache = new ProfileCache<>(3);
+        cache.get("a", String::length);
+        cache.get("bb", String::length);
+        cache.get("ccc", String::length);
+        cache.get("a", String::length);
+        cache.get("dddd", String::length);
+
+        // "bb" was the least recently used entry, so that it was evicted and "a" survived
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.get("a", String::length);
+        assertEquals(2, cache.getHits());
+        cache.get("bb", String::length);
+        assertEquals(5, cache.getMisses());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException, ExecutionException {
+        ProfileCache<Integer> cache = new ProfileCache<>(2000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // The futures rethrow the assertion errors of the workers, so that wrong profiles fail the test
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        String value = String.valueOf(i % 3000);
+                        assertEquals((Integer) (i % 3000), cache.get(value, Integer::valueOf));
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(40000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.size() <= 2000);
+    }
+}
@@ -0,0 +1,86 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of encoding a name-like string with the tokenization strategies against the current character
+ * q-gram path, both encoded and materialized as strings. Run with -prof gc to see the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    // The number of words of the tokenized string.
+    @Param({"3", "12"})
+    public int numWords;
+
+    private String string;
+    private LongArrayList codes;
+    private Tokenizer qGrams;
+    private Tokenizer words;
+    private Tokenizer normalizedWords;
+    private Tokenizer skipGrams;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.numWords; i++) {
+            if (i > 0)
+                builder.append(random.nextBoolean() ? " " : ", ");
+            builder.append((char) ('A' + random.nextInt(26)));
+            for (int j = random.nextInt(8); j >= 0; j--)
+                builder.append("aeiouäéklmnrst".charAt(random.nextInt(14)));
+        }
+        this.string = builder.toString();
+        this.codes = new LongArrayList();
+        this.qGrams = new Tokenizer(3, true);
+        this.words = new Tokenizer(new WordTokenization(false));
+        this.normalizedWords = new Tokenizer(new WordTokenization(true));
+        this.skipGrams = new Tokenizer(new SkipGramTokenization(1, true));
+    }
+
+    @Benchmark
+    public String[] qGramStrings() {
+        return this.qGrams.tokenize(this.string);
+    }
+
+    @Benchmark
+    public LongArrayList qGramCodes() {
+        this.qGrams.encode(this.string, this.codes);
+        return this.codes;
+    }
+
+    @Benchmark
+    public LongArrayList wordCodes() {
+        this.words.encode(this.string, this.codes);
+        return this.codes;
+    }
+
+    @Benchmark
+    public LongArrayList normalizedWordCodes() {
+        this.normalizedWords.encode(this.string, this.codes);
+        return this.codes;
+    }
+
+    @Benchmark
+    public LongArrayList skipGramCodes() {
+        this.skipGrams.encode(this.string, this.codes);
+        return this.codes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,9 +1,12 @@
 package de.di.similarity_measures.helper;
 
+import de.di.similarity_measures.structures.TokenProfile;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class TokenizerTest {
 
@@ -75,4 +78,76 @@ public class TokenizerTest {
         test = new String[]{p + p + p, p + p + p};
         assertArrayEquals(test, result);
     }
+
+    @Test
+    public void testEncodingMatchesTokenHashes() {
+        LongArrayList codes = new LongArrayList();
+        for (String string : new String[]{"", "a", "Big Data Systems", "Integration", "Ärger über 日本語"}) {
+            for (int tokenSize = 1; tokenSize <= 7; tokenSize++) {
+                for (boolean usePadding : new boolean[]{false, true}) {
+                    Tokenizer tokenizer = new Tokenizer(tokenSize, usePadding);
+                    String[] tokens = tokenizer.tokenize(string);
+                    tokenizer.encode(string, codes);
+                    assertEquals(tokens.length, codes.size());
+                    for (int i = 0; i < tokens.length; i++)
+                        assertEquals(string + " / " + tokenSize + " / " + i, TokenProfile.hash(tokens[i]), codes.getLong(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEncodingSeparatesHashCodeCollisions() {
+        // "Aa123" and "BB123" have equal String.hashCode()s, but must not share a rolled 5-gram code
+        Tokenizer tokenizer = new Tokenizer(5, false);
+        LongArrayList codes1 = new LongArrayList();
+        LongArrayList codes2 = new LongArrayList();
+        tokenizer.encode("xAa123", codes1);
+        tokenizer.encode("xBB123", codes2);
+        assertNotEquals(codes1.getLong(1), codes2.getLong(1));
+
+        tokenizer = new Tokenizer(new WordTokenization(false));
+        tokenizer.encode("Müller Aa123", codes1);
+        tokenizer.encode("Müller BB123", codes2);
+        assertEquals(codes1.getLong(0), codes2.getLong(0));
+        assertNotEquals(codes1.getLong(1), codes2.getLong(1));
+    }
+
+    @Test
+    public void testWordTokenization() {
+        Tokenizer tokenizer = new Tokenizer(new WordTokenization(false));
+        assertArrayEquals(new String[]{"Müller", "Lüdenscheidt", "Dr", "42"}, tokenizer.tokenize("Müller-Lüdenscheidt, Dr. 42"));
+        assertArrayEquals(new String[0], tokenizer.tokenize(" ,.- "));
+
+        tokenizer = new Tokenizer(new WordTokenization(true));
+        assertArrayEquals(new String[]{"muller", "ludenscheidt", "dr", "42"}, tokenizer.tokenize("Müller-Lüdenscheidt, Dr. 42"));
+        assertArrayEquals(new String[]{"creme", "brulee", "a", "la", "francaise"}, tokenizer.tokenize("CRÈME BRÛLÉE à la Française"));
+    }
+
+    @Test
+    public void testSkipGramTokenization() {
+        Tokenizer tokenizer = new Tokenizer(new SkipGramTokenization(0, false));
+        assertArrayEquals(new String[]{"Ab", "bc", "cd"}, tokenizer.tokenize("Abcd"));
+
+        tokenizer = new Tokenizer(new SkipGramTokenization(1, true));
+        assertArrayEquals(new String[]{"ab", "ac", "bc", "bd", "cd"}, tokenizer.tokenize("Abcd"));
+        assertArrayEquals(new String[0], tokenizer.tokenize("a"));
+    }
+
+    @Test
+    public void testStrategyEncodingMatchesTokenHashes() {
+        LongArrayList codes = new LongArrayList();
+        TokenizationStrategy[] strategies = {new WordTokenization(false), new WordTokenization(true),
+                new SkipGramTokenization(0, false), new SkipGramTokenization(2, true)};
+        for (String string : new String[]{"", "a", "Big Data Systems", "Müller-Lüdenscheidt, Dr. 42", "Ärger über 日本語"}) {
+            for (TokenizationStrategy strategy : strategies) {
+                Tokenizer tokenizer = new Tokenizer(strategy);
+                String[] tokens = tokenizer.tokenize(string);
+                tokenizer.encode(string, codes);
+                assertEquals(tokens.length, codes.size());
+                for (int i = 0; i < tokens.length; i++)
+                    assertEquals(string + " / " + i, TokenProfile.hash(tokens[i]), codes.getLong(i));
+            }
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package de.di.similarity_measures.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class UniversalMinHashTest {
+
+    @Test
+    public void testSignature() {
+        UniversalMinHash minHash = new UniversalMinHash(16, 1);
+        long[] codes = {5, 17, 42, 99};
+        long[] permuted = {99, 42, 5, 17, 5};
+
+        assertEquals(16, minHash.signature(codes, codes.length).length);
+        assertArrayEquals(minHash.signature(codes, codes.length), minHash.signature(permuted, permuted.length));
+        assertArrayEquals(minHash.signature(codes, 1), minHash.signature(new long[]{5}, 1));
+        assertEquals(Integer.MAX_VALUE, minHash.signature(codes, 0)[0]);
+    }
+
+    @Test
+    public void testSimilarityEstimate() {
+        // Two sets of 1000 codes that share 500 codes have a Jaccard similarity of 500 / 1500
+        long[] codes1 = new long[1000];
+        long[] codes2 = new long[1000];
+        for (int i = 0; i < 1000; i++) {
+            codes1[i] = i * 0x9E3779B97F4A7C15L;
+            codes2[i] = (i + 500) * 0x9E3779B97F4A7C15L;
+        }
+
+        UniversalMinHash minHash = new UniversalMinHash(512, 7);
+        double estimate = MinHashScheme.similarity(minHash.signature(codes1, codes1.length), minHash.signature(codes2, codes2.length));
+        assertEquals((double) 500 / 1500, estimate, 0.05);
+    }
+
+    @Test
+    public void testSimilarityEstimateOfProgression() {
+        // Consecutive codes, e.g., of numeric ids, must not bias the estimate of the linear hash functions
+        long[] codes1 = new long[1000];
+        long[] codes2 = new long[1000];
+        for (int i = 0; i < 1000; i++) {
+            codes1[i] = i;
+            codes2[i] = i + 500;
+        }
+
+        // A biased estimator is consistently off, so the mean estimate of several seeds must be close to the truth
+        double estimate = 0;
+        for (int seed = 0; seed < 10; seed++) {
+            UniversalMinHash minHash = new UniversalMinHash(512, seed);
+            estimate += MinHashScheme.similarity(minHash.signature(codes1, codes1.length), minHash.signature(codes2, codes2.length)) / 10;
+        }
+        assertEquals((double) 500 / 1500, estimate, 0.02);
+    }
+}
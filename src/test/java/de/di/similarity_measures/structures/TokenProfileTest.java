@@ -0,0 +1,62 @@
+package de.di.similarity_measures.structures;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class TokenProfileTest {
+
+    @Test
+    public void testProfile() {
+        TokenProfile profile = TokenProfile.of(new String[]{"ab", "cd", "ab", "ef", "ab", null, ""});
+        assertEquals(7, profile.getNumTokens());
+        assertEquals(5, profile.numDistinctTokens());
+        for (int i = 1; i < profile.getHashes().length; i++)
+            assertEquals(true, profile.getHashes()[i - 1] < profile.getHashes()[i]);
+
+        int abIndex = -1;
+        for (int i = 0; i < profile.getHashes().length; i++)
+            if (profile.getHashes()[i] == TokenProfile.hash("ab"))
+                abIndex = i;
+        assertEquals(3, profile.getCounts()[abIndex]);
+
+        assertSame(TokenProfile.EMPTY, TokenProfile.of(new String[0]));
+    }
+
+    @Test
+    public void testIntersections() {
+        TokenProfile profile1 = TokenProfile.of(new String[]{"a", "b", "b", "c", "d", "d", "d"});
+        TokenProfile profile2 = TokenProfile.of(new String[]{"b", "d", "d", "e"});
+        assertEquals(2, profile1.intersectionSize(profile2));
+        assertEquals(2, profile2.intersectionSize(profile1));
+        assertEquals(3, profile1.bagIntersectionSize(profile2));
+        assertEquals(3, profile2.bagIntersectionSize(profile1));
+        assertEquals(0, profile1.intersectionSize(TokenProfile.EMPTY));
+    }
+
+    @Test
+    public void testOfHashesReusesArray() {
+        long[] hashes = {5, 3, 5, 1, 42, 42};
+        TokenProfile profile = TokenProfile.ofHashes(hashes, 5);
+        assertArrayEquals(new long[]{1, 3, 5, 42}, profile.getHashes());
+        assertArrayEquals(new int[]{1, 1, 2, 1}, profile.getCounts());
+        assertEquals(5, profile.getNumTokens());
+    }
+
+    @Test
+    public void testHashCollisions() {
+        // These tokens collide under the base-31 polynomial hash of String.hashCode(), because "Aa" and "BB" do
+        assertEquals("Aa123".hashCode(), "BB123".hashCode());
+        assertNotEquals(TokenProfile.hash("Aa123"), TokenProfile.hash("BB123"));
+        assertNotEquals(TokenProfile.hash("Müller Aa"), TokenProfile.hash("Müller BB"));
+        assertEquals(2, TokenProfile.of(new String[]{"Aa123", "BB123"}).numDistinctTokens());
+
+        // Packed codes ignore leading zero chars, so the length must distinguish these tokens
+        assertNotEquals(TokenProfile.hash("\0ab"), TokenProfile.hash("ab"));
+        assertNotEquals(TokenProfile.hash("\0"), TokenProfile.hash(""));
+        assertEquals(3, TokenProfile.of(new String[]{"", "\0", null}).numDistinctTokens());
+    }
+}